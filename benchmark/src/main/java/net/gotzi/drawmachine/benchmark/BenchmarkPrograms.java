@@ -0,0 +1,53 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.benchmark;
+
+import net.gotzi.drawmachine.api.sim.SimProgramInfo;
+import net.gotzi.drawmachine.api.sim.SimValues;
+import net.gotzi.drawmachine.json.SimProgramLoader;
+import net.gotzi.drawmachine.sim.SimInfo;
+import net.gotzi.drawmachine.sim.gcode.GCode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BenchmarkPrograms {
+
+    /**
+     * Creates a program of the given amount of G8/G9 sequences, each driving all three motors. Together they draw the
+     * same figure as the default program.
+     *
+     * @param sequences The amount of sequences.
+     * @return The G-code of the program.
+     */
+    public static GCode createGCode(int sequences) {
+        List<String> source = new ArrayList<>();
+        source.add("G54 A0 B0 M0");
+
+        for (int i = 0; i < sequences; i++) {
+            source.add("G8");
+            source.add("G0 A" + (-99000.0 / sequences) + " D" + (100000 / sequences));
+            source.add("G0 B" + (100000.0 / sequences) + " D" + (100000 / sequences));
+            source.add("G0 M" + (360.0 / sequences) + " D" + (100000 / sequences));
+            source.add("G9");
+        }
+
+        return new GCode(source.toArray(new String[0]));
+    }
+
+    /**
+     * @return The program with the given amount of sequences and the default machine geometry.
+     */
+    public static SimProgramInfo createProgram(int sequences) {
+        SimProgramInfo defaultProgram = new SimProgramLoader().getDefault();
+        return new SimProgramInfo(defaultProgram.saved(), createGCode(sequences));
+    }
+
+    public static SimInfo createSimInfo(int sequences, int simulationSteps) {
+        SimProgramInfo program = createProgram(sequences);
+        return new SimInfo(SimValues.from(program.saved(), program.gcode()), simulationSteps, true);
+    }
+}
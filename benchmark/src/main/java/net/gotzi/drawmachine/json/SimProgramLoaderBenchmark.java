@@ -0,0 +1,45 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.json;
+
+import net.gotzi.drawmachine.api.sim.SimProgramInfo;
+import net.gotzi.drawmachine.benchmark.BenchmarkPrograms;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimProgramLoaderBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int sequences;
+
+    private SimProgramLoader loader;
+    private SimProgramInfo program;
+    private String source;
+
+    @Setup
+    public void setup() {
+        this.loader = new SimProgramLoader();
+        this.program = BenchmarkPrograms.createProgram(sequences);
+        this.source = loader.unload(program);
+    }
+
+    @Benchmark
+    public SimProgramInfo load() {
+        return loader.load(source);
+    }
+
+    @Benchmark
+    public String unload() {
+        return loader.unload(program);
+    }
+}
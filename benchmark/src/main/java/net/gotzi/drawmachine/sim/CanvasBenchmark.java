@@ -0,0 +1,66 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim;
+
+import net.gotzi.drawmachine.error.PencilOutOfCanvas;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CanvasBenchmark {
+
+    private static final int POINTS = 1 << 16;
+
+    private Canvas canvas;
+    private int[] xs;
+    private int[] ys;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int index;
+    }
+
+    @Setup
+    public void setup() {
+        this.canvas = new Canvas(2100, 2100, Color.BLACK);
+        this.xs = new int[POINTS];
+        this.ys = new int[POINTS];
+
+        Random random = new Random(42);
+        for (int i = 0; i < POINTS; i++) {
+            xs[i] = random.nextInt(2100);
+            ys[i] = random.nextInt(2100);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void setPoint(Cursor cursor) throws PencilOutOfCanvas {
+        int i = cursor.index++ & (POINTS - 1);
+        canvas.setPoint(xs[i], ys[i]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void setPointConcurrent(Cursor cursor) throws PencilOutOfCanvas {
+        int i = cursor.index++ & (POINTS - 1);
+        canvas.setPoint(xs[i], ys[i]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void reset() {
+        canvas.reset();
+    }
+}
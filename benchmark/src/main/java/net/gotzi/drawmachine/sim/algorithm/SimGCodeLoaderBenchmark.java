@@ -0,0 +1,47 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.algorithm;
+
+import net.gotzi.drawmachine.benchmark.BenchmarkPrograms;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimGCodeLoaderBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int sequences;
+
+    private SimGCodeLoader loader;
+    private double fullTime;
+    private double timestamp;
+
+    @Setup
+    public void setup() {
+        this.loader = new SimGCodeLoader(BenchmarkPrograms.createGCode(sequences));
+        this.fullTime = loader.getFullTime();
+    }
+
+    /**
+     * The three angle lookups of one sample, the timestamps walk over the whole program.
+     */
+    @Benchmark
+    public double angles() {
+        timestamp += 7.31;
+        if (timestamp > fullTime)
+            timestamp -= fullTime;
+
+        return loader.getMiddleDegree(timestamp)
+                + loader.getStepperADegree(timestamp)
+                + loader.getStepperBDegree(timestamp);
+    }
+}
@@ -0,0 +1,53 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.algorithm.logic;
+
+import net.gotzi.drawmachine.api.sim.SimCompletedInfo;
+import net.gotzi.drawmachine.benchmark.BenchmarkPrograms;
+import net.gotzi.drawmachine.sim.Canvas;
+import net.gotzi.drawmachine.sim.RenderProgress;
+import net.gotzi.drawmachine.sim.SimInfo;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FastLogicBenchmark {
+
+    @Param({"1", "100"})
+    public int sequences;
+
+    /**
+     * The simulation accuracy of the monitor, 100 equals one sample per time unit.
+     */
+    @Param({"10", "100", "1000"})
+    public int simulationSteps;
+
+    private SimInfo simInfo;
+    private Canvas canvas;
+
+    @Setup
+    public void setup() {
+        this.simInfo = BenchmarkPrograms.createSimInfo(sequences, simulationSteps);
+        this.canvas = new Canvas(2100, 2100, Color.BLACK);
+    }
+
+    @Benchmark
+    public SimCompletedInfo render() {
+        canvas.reset();
+
+        FastLogic fastLogic = new FastLogic(simInfo, new RenderProgress(), state -> {}, canvas);
+        fastLogic.run();
+
+        return fastLogic.getCompletion().join();
+    }
+}
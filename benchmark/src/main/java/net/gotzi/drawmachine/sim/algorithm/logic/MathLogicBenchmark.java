@@ -0,0 +1,52 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.algorithm.logic;
+
+import net.gotzi.drawmachine.benchmark.BenchmarkPrograms;
+import net.gotzi.drawmachine.sim.SimInfo;
+import net.gotzi.drawmachine.sim.algorithm.SimGCodeLoader;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MathLogicBenchmark {
+
+    @Param({"1", "1000"})
+    public int sequences;
+
+    private MathLogic mathLogic;
+    private SimGCodeLoader loader;
+    private double fullTime;
+    private double timestamp;
+
+    private final double[] x = new double[1];
+    private final double[] y = new double[1];
+
+    @Setup
+    public void setup() {
+        SimInfo simInfo = BenchmarkPrograms.createSimInfo(sequences, 100);
+
+        this.mathLogic = new MathLogic(simInfo);
+        this.loader = new SimGCodeLoader(simInfo.getSimValues().gCode());
+        this.fullTime = loader.getFullTime();
+    }
+
+    @Benchmark
+    public double calculatePencilPoint() {
+        timestamp += 7.31;
+        if (timestamp > fullTime)
+            timestamp -= fullTime;
+
+        mathLogic.calculatePencilPoint(timestamp, loader, x, y, 0);
+        return x[0] + y[0];
+    }
+}
@@ -0,0 +1,59 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.algorithm.logic;
+
+import net.gotzi.drawmachine.benchmark.BenchmarkPrograms;
+import net.gotzi.drawmachine.sim.SimInfo;
+import net.gotzi.drawmachine.sim.algorithm.SimGCodeLoader;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class VectorMathLogicBenchmark {
+
+    private static final int BATCH_SIZE = 1 << 13;
+
+    @Param({"false", "true"})
+    public boolean vector;
+
+    private MathLogic mathLogic;
+    private SimGCodeLoader loader;
+    private double stepFactor;
+    private long timestamps;
+    private long start;
+
+    private final double[] xs = new double[BATCH_SIZE];
+    private final double[] ys = new double[BATCH_SIZE];
+
+    @Setup
+    public void setup() {
+        SimInfo simInfo = BenchmarkPrograms.createSimInfo(1000, 100);
+
+        this.mathLogic = MathLogic.create(simInfo, vector);
+        this.loader = new SimGCodeLoader(simInfo.getSimValues().gCode());
+        this.stepFactor = simInfo.getStepFactor();
+        this.timestamps = (long) (loader.getFullTime() * stepFactor);
+
+        if (vector && !(mathLogic instanceof VectorMathLogic))
+            throw new IllegalStateException("The vector module is missing");
+    }
+
+    @Benchmark
+    public double calculatePencilPoints() {
+        start += BATCH_SIZE;
+        if (start + BATCH_SIZE > timestamps)
+            start = 0;
+
+        mathLogic.calculatePencilPoints(start, BATCH_SIZE, stepFactor, loader, xs, ys);
+        return xs[0] + ys[BATCH_SIZE - 1];
+    }
+}
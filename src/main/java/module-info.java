@@ -7,5 +7,6 @@ module at.gotzi.karodesigner.karodesigner {
     requires java.logging;
     requires org.json;
     requires org.fife.RSyntaxTextArea;
+    requires static jdk.incubator.vector;
 
 }
\ No newline at end of file
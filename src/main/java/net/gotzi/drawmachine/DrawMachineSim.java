@@ -13,6 +13,7 @@ import net.gotzi.drawmachine.handler.design.ChangeManualDesign;
 import net.gotzi.drawmachine.handler.design.DesignColor;
 import net.gotzi.drawmachine.handler.design.DesignHandler;
 import net.gotzi.drawmachine.handler.hotkey.HotKeyHandler;
+import net.gotzi.drawmachine.sim.cache.RenderCache;
 import net.gotzi.drawmachine.view.menubar.MenuBar;
 
 import javax.imageio.ImageIO;
@@ -90,6 +91,8 @@ public class DrawMachineSim implements Application {
 
     private HotKeyHandler hotKeyHandler;
 
+    private final RenderCache renderCache;
+
     public DrawMachineSim() throws IOException {
         instance = this;
 
@@ -105,6 +108,9 @@ public class DrawMachineSim implements Application {
         this.designHandler = new DesignHandler();
         this.designHandler.registerDesignColor(DesignColor.SECONDARY,
                 Color.decode(config.get("designColor.secondary_hex")));
+
+        this.renderCache = new RenderCache(Integer.parseInt(config.get("render_cache_size")),
+                () -> this.view == null ? null : this.view.getWorkspace().getDirectoryPath());
     }
 
     /**
@@ -170,4 +176,8 @@ public class DrawMachineSim implements Application {
     public HotKeyHandler getHotKeyHandler() {
         return hotKeyHandler;
     }
+
+    public RenderCache getRenderCache() {
+        return renderCache;
+    }
 }
@@ -5,5 +5,9 @@
 
 package net.gotzi.drawmachine.api.sim;
 
-public record SimRenderState(int timestamp, int time) {
+/**
+ * @param timestamp The native timestamp the render has reached.
+ * @param time The native duration of the program, a program with repeat blocks can last longer than an int.
+ */
+public record SimRenderState(long timestamp, long time) {
 }
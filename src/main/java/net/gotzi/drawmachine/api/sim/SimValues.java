@@ -16,4 +16,18 @@ public record SimValues(SimPoint middlePoint, //DC gear Punkt ausgehend Canvas
                         double supportPole, //Länge b
                         double intersection,
                         GCode gCode) {
+
+    public static SimValues from(SimEditorValues editorValues, GCode gCode) {
+        return new SimValues(
+                editorValues.middlePoint(),
+                editorValues.m1Point(),
+                editorValues.m2Point(),
+                editorValues.m1Horn(),
+                editorValues.m2Horn(),
+                editorValues.mainPole(),
+                editorValues.supportPole(),
+                editorValues.intersection(),
+                gCode
+        );
+    }
 }
\ No newline at end of file
@@ -0,0 +1,232 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.batch;
+
+import net.gotzi.drawmachine.Application;
+import net.gotzi.drawmachine.api.sim.SimCompletedInfo;
+import net.gotzi.drawmachine.api.sim.SimProgramInfo;
+import net.gotzi.drawmachine.api.sim.SimValues;
+import net.gotzi.drawmachine.control.DimensionConstants;
+import net.gotzi.drawmachine.json.SimProgramLoader;
+import net.gotzi.drawmachine.sim.Canvas;
+import net.gotzi.drawmachine.sim.Precision;
+import net.gotzi.drawmachine.sim.RenderProgress;
+import net.gotzi.drawmachine.sim.SimInfo;
+import net.gotzi.drawmachine.sim.StrokeMode;
+import net.gotzi.drawmachine.sim.algorithm.SimGCodeLoader;
+import net.gotzi.drawmachine.sim.algorithm.logic.ApproximateMathLogic;
+import net.gotzi.drawmachine.sim.algorithm.logic.ApproximateMathLogic.ApproximationError;
+import net.gotzi.drawmachine.sim.algorithm.logic.FastLogic;
+import net.gotzi.drawmachine.sim.trace.PointTrace;
+import net.gotzi.drawmachine.sim.trace.PointTraceWriter;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+public class BatchRenderer implements Application {
+
+    private static final String PROGRAM_EXTENSION = ".dmsp";
+
+    private static final int ERROR_SAMPLES = 100000;
+
+    private final SimProgramLoader loader;
+    private final List<Path> inputs;
+
+    private int simulationSteps = 100;
+    private int jobs = 2;
+    private StrokeMode strokeMode = StrokeMode.DOTS;
+    private double segmentLength = 0;
+    private boolean recordTrace = false;
+    private Precision precision = Precision.EXACT;
+    private Path outputDirectory;
+    private int failed = 0;
+
+    public BatchRenderer(String[] args) {
+        this.loader = new SimProgramLoader();
+        this.inputs = new ArrayList<>();
+
+        parseArguments(args);
+    }
+
+    private void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-steps" -> this.simulationSteps = Integer.parseInt(requireValue(args, ++i));
+                case "-jobs" -> this.jobs = Math.max(1, Integer.parseInt(requireValue(args, ++i)));
+                case "-stroke" -> this.strokeMode = StrokeMode.fromOption(requireValue(args, ++i));
+                case "-adaptive" -> this.segmentLength = Double.parseDouble(requireValue(args, ++i));
+                case "-approximate" -> this.precision = Precision.APPROXIMATE;
+                case "-trace" -> this.recordTrace = true;
+                case "-out" -> this.outputDirectory = Path.of(requireValue(args, ++i));
+                default -> this.inputs.add(Path.of(args[i]));
+            }
+        }
+
+        if (this.inputs.isEmpty())
+            throw new IllegalArgumentException("usage: [-steps n] [-jobs n] [-stroke dots|lines|smooth] " +
+                    "[-adaptive length] [-approximate] [-trace] [-out directory] (file.dmsp | directory)...");
+    }
+
+    private String requireValue(String[] args, int index) {
+        if (index >= args.length)
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+
+        return args[index];
+    }
+
+    /**
+     * It renders every program of the inputs, directories are searched for .dmsp files. Every render already spreads
+     * its samples over the shared render pool, the jobs only overlap loading and writing the images of several programs
+     */
+    @Override
+    public void start() throws IOException {
+        DimensionConstants.load();
+
+        List<Path> programs = collectPrograms();
+        ExecutorService executor = Executors.newFixedThreadPool(jobs);
+        List<Future<SimCompletedInfo>> futures = new ArrayList<>();
+
+        for (Path program : programs)
+            futures.add(executor.submit(() -> renderProgram(program)));
+
+        for (Future<SimCompletedInfo> future : futures) {
+            try {
+                future.get();
+            } catch (Exception e) {
+                this.failed++;
+            }
+        }
+
+        executor.shutdown();
+        System.out.println("Rendered " + (programs.size() - failed) + "/" + programs.size() + " programs");
+    }
+
+    @Override
+    public void stop() {
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    private List<Path> collectPrograms() throws IOException {
+        List<Path> programs = new ArrayList<>();
+
+        for (Path input : inputs) {
+            if (!Files.isDirectory(input)) {
+                programs.add(input);
+                continue;
+            }
+
+            try (Stream<Path> stream = Files.walk(input)) {
+                stream.filter(path -> path.getFileName().toString().endsWith(PROGRAM_EXTENSION))
+                        .sorted()
+                        .forEach(programs::add);
+            }
+        }
+
+        return programs;
+    }
+
+    private SimCompletedInfo renderProgram(Path program) throws IOException {
+        try {
+            SimProgramInfo simProgramInfo = loader.load(Files.readString(program));
+            Canvas paper = createPaper();
+
+            Path trace = recordTrace ? getOutputPath(program, PointTrace.FILE_EXTENSION) : null;
+            SimCompletedInfo completedInfo = render(simProgramInfo, paper, trace);
+
+            Path image = getOutputPath(program, ".png");
+            ImageIO.write(paper, "png", image.toFile());
+
+            System.out.println(program + " -> " + image + " | Timer " + completedInfo.calculationTime() + "ms | Travel "
+                    + completedInfo.travelDistance() + describeError(simProgramInfo));
+
+            return completedInfo;
+        } catch (IOException | RuntimeException e) {
+            System.err.println(program + " failed: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * It measures the error of approximate renders against the exact kernel.
+     *
+     * @return The error for the output line, or an empty string for exact renders.
+     */
+    private String describeError(SimProgramInfo simProgramInfo) {
+        if (precision != Precision.APPROXIMATE)
+            return "";
+
+        SimInfo simInfo = createSimInfo(simProgramInfo);
+        ApproximationError error = ApproximateMathLogic.measureError(simInfo,
+                new SimGCodeLoader(simInfo.getSimValues().gCode()), ERROR_SAMPLES);
+
+        return String.format(" | Error max %.4fpx mean %.4fpx", error.maxError(), error.meanError());
+    }
+
+    private SimInfo createSimInfo(SimProgramInfo simProgramInfo) {
+        SimValues simValues = SimValues.from(simProgramInfo.saved(), simProgramInfo.gcode());
+        return new SimInfo(simValues, simulationSteps, true, strokeMode, segmentLength, precision);
+    }
+
+    /**
+     * It renders the program with the fast logic and waits until the render is finished.
+     *
+     * @param simProgramInfo The program to render.
+     * @param paper The canvas the points are drawn onto.
+     * @param trace The file the points are recorded into, or null.
+     * @return The information of the completed render.
+     */
+    public SimCompletedInfo render(SimProgramInfo simProgramInfo, Canvas paper, Path trace) throws IOException {
+        SimInfo simInfo = createSimInfo(simProgramInfo);
+
+        FastLogic fastLogic = new FastLogic(simInfo, new RenderProgress(), state -> {}, paper);
+
+        if (trace == null) {
+            fastLogic.run();
+            return fastLogic.getCompletion().join();
+        }
+
+        PointTraceWriter writer = new PointTraceWriter(trace, simInfo.getSimValues(), paper.getWidth(),
+                paper.getHeight(), simInfo.getStepFactor());
+
+        try {
+            fastLogic.recordTrace(writer);
+            fastLogic.run();
+
+            SimCompletedInfo completedInfo = fastLogic.getCompletion().join();
+            writer.close();
+            return completedInfo;
+        } catch (RuntimeException e) {
+            writer.discard();
+            throw e;
+        }
+    }
+
+    private Canvas createPaper() {
+        Dimension dimension = DimensionConstants.getConstantDimension("simulation.view.canvas");
+        return new Canvas(dimension.width, dimension.height, Color.BLACK);
+    }
+
+    private Path getOutputPath(Path program, String extension) throws IOException {
+        String name = program.getFileName().toString();
+
+        if (name.endsWith(PROGRAM_EXTENSION))
+            name = name.substring(0, name.length() - PROGRAM_EXTENSION.length());
+
+        Path directory = outputDirectory != null ? outputDirectory : program.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+
+        return directory.resolve(name + extension);
+    }
+}
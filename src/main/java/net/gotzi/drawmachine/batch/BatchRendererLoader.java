@@ -0,0 +1,26 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.batch;
+
+import net.gotzi.drawmachine.Application;
+
+import java.io.IOException;
+
+public class BatchRendererLoader {
+
+    /**
+     * Renders .dmsp programs into PNG files without a window.
+     *
+     * usage: [-steps n] [-jobs n] [-stroke dots|lines|smooth] [-adaptive length] [-approximate] [-trace] [-out directory] (file.dmsp | directory)...
+     */
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+
+        Application application = new BatchRenderer(args);
+        application.start();
+        application.stop();
+    }
+}
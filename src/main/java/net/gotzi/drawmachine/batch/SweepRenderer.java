@@ -0,0 +1,124 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.batch;
+
+import net.gotzi.drawmachine.Application;
+import net.gotzi.drawmachine.api.sim.SimProgramInfo;
+import net.gotzi.drawmachine.control.DimensionConstants;
+import net.gotzi.drawmachine.json.SimProgramLoader;
+import net.gotzi.drawmachine.sim.algorithm.logic.SweepLogic;
+import net.gotzi.drawmachine.sim.sweep.SweepContactSheet;
+import net.gotzi.drawmachine.sim.sweep.SweepRange;
+import net.gotzi.drawmachine.sim.sweep.SweepResult;
+import net.gotzi.drawmachine.utils.BenchmarkTimer;
+
+import javax.imageio.ImageIO;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public class SweepRenderer implements Application {
+
+    private static final String PROGRAM_EXTENSION = ".dmsp";
+    private static final String USAGE = "usage: [-steps n] [-size n] [-out directory] -param key=from:to:steps... file.dmsp";
+
+    private final List<SweepRange> ranges;
+
+    private int simulationSteps = 10;
+    private int thumbnailSize = 256;
+    private Path outputDirectory = Path.of(".");
+    private Path program;
+
+    public SweepRenderer(String[] args) {
+        this.ranges = new ArrayList<>();
+
+        parseArguments(args);
+    }
+
+    private void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-steps" -> this.simulationSteps = Integer.parseInt(requireValue(args, ++i));
+                case "-size" -> this.thumbnailSize = Integer.parseInt(requireValue(args, ++i));
+                case "-out" -> this.outputDirectory = Path.of(requireValue(args, ++i));
+                case "-param" -> this.ranges.add(SweepRange.parse(requireValue(args, ++i)));
+                default -> this.program = Path.of(args[i]);
+            }
+        }
+
+        if (this.program == null || this.ranges.isEmpty())
+            throw new IllegalArgumentException(USAGE);
+    }
+
+    private String requireValue(String[] args, int index) {
+        if (index >= args.length)
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+
+        return args[index];
+    }
+
+    /**
+     * It renders all combinations and writes the contact sheet as a PNG file and the numbers of every combination as a
+     * CSV file next to it.
+     */
+    @Override
+    public void start() throws IOException {
+        DimensionConstants.load();
+
+        SimProgramInfo simProgramInfo = new SimProgramLoader().load(Files.readString(program));
+        SweepLogic sweepLogic = new SweepLogic(simProgramInfo, ranges, simulationSteps,
+                DimensionConstants.getConstantDimension("simulation.view.canvas"), thumbnailSize);
+
+        BenchmarkTimer benchmarkTimer = new BenchmarkTimer();
+        benchmarkTimer.start();
+
+        sweepLogic.run();
+        List<SweepResult> results = sweepLogic.getCompletion().join();
+
+        System.out.println("Rendered " + results.size() + " combinations in " + benchmarkTimer.stop() + "ms");
+
+        String name = program.getFileName().toString();
+        if (name.endsWith(PROGRAM_EXTENSION))
+            name = name.substring(0, name.length() - PROGRAM_EXTENSION.length());
+
+        Files.createDirectories(outputDirectory);
+        Path sheet = outputDirectory.resolve(name + "-sweep.png");
+        Path table = outputDirectory.resolve(name + "-sweep.csv");
+
+        ImageIO.write(SweepContactSheet.create(ranges, results), "png", sheet.toFile());
+        writeTable(table, results);
+
+        System.out.println("Contact sheet " + sheet + " | Table " + table);
+    }
+
+    @Override
+    public void stop() {
+        System.exit(0);
+    }
+
+    private void writeTable(Path table, List<SweepResult> results) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(table)) {
+            for (SweepRange range : ranges)
+                writer.write(range.parameter().getKey() + ",");
+
+            writer.write("travelDistance,outOfCanvas,samples");
+            writer.newLine();
+
+            for (SweepResult result : results) {
+                for (double value : result.parameterValues())
+                    writer.write(String.format(Locale.ROOT, "%s,", value));
+
+                writer.write(String.format(Locale.ROOT, "%.3f,%d,%d",
+                        result.travelDistance(), result.outOfCanvas(), result.samples()));
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.batch;
+
+import net.gotzi.drawmachine.Application;
+
+import java.io.IOException;
+
+public class SweepRendererLoader {
+
+    /**
+     * Renders every combination of the given parameter ranges of a .dmsp program into a contact sheet.
+     *
+     * usage: [-steps n] [-size n] [-out directory] -param key=from:to:steps... file.dmsp
+     */
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+
+        Application application = new SweepRenderer(args);
+        application.start();
+        application.stop();
+    }
+}
@@ -0,0 +1,160 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.batch;
+
+import net.gotzi.drawmachine.Application;
+import net.gotzi.drawmachine.api.sim.SimProgramInfo;
+import net.gotzi.drawmachine.api.sim.SimValues;
+import net.gotzi.drawmachine.json.SimProgramLoader;
+import net.gotzi.drawmachine.sim.Canvas;
+import net.gotzi.drawmachine.sim.StrokeMode;
+import net.gotzi.drawmachine.sim.trace.PointTrace;
+import net.gotzi.drawmachine.utils.BenchmarkTimer;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TraceRenderer implements Application {
+
+    private static final String USAGE = "usage: [-size n] [-color rrggbb] [-stroke dots|lines|smooth] " +
+            "[-program file.dmsp] [-out directory] file.dmpt...";
+
+    private final List<Path> traces;
+
+    private int size = 0;
+    private Color color = Color.BLACK;
+    private StrokeMode strokeMode = StrokeMode.DOTS;
+    private Path program;
+    private Path outputDirectory;
+    private int failed = 0;
+
+    public TraceRenderer(String[] args) {
+        this.traces = new ArrayList<>();
+
+        parseArguments(args);
+    }
+
+    private void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-size" -> this.size = Integer.parseInt(requireValue(args, ++i));
+                case "-color" -> this.color = new Color(Integer.parseInt(requireValue(args, ++i), 16));
+                case "-stroke" -> this.strokeMode = StrokeMode.fromOption(requireValue(args, ++i));
+                case "-program" -> this.program = Path.of(requireValue(args, ++i));
+                case "-out" -> this.outputDirectory = Path.of(requireValue(args, ++i));
+                default -> this.traces.add(Path.of(args[i]));
+            }
+        }
+
+        if (this.traces.isEmpty())
+            throw new IllegalArgumentException(USAGE);
+    }
+
+    private String requireValue(String[] args, int index) {
+        if (index >= args.length)
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+
+        return args[index];
+    }
+
+    /**
+     * It plots every trace onto its own canvas. With a program, traces which were recorded from another geometry or
+     * G-code are skipped
+     */
+    @Override
+    public void start() throws IOException {
+        SimValues simValues = null;
+
+        if (program != null) {
+            SimProgramInfo simProgramInfo = new SimProgramLoader().load(Files.readString(program));
+            simValues = SimValues.from(simProgramInfo.saved(), simProgramInfo.gcode());
+        }
+
+        for (Path trace : traces) {
+            try {
+                plotTrace(trace, simValues);
+            } catch (IOException | RuntimeException e) {
+                System.err.println(trace + " failed: " + e.getMessage());
+                this.failed++;
+            }
+        }
+
+        System.out.println("Plotted " + (traces.size() - failed) + "/" + traces.size() + " traces");
+    }
+
+    @Override
+    public void stop() {
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    private void plotTrace(Path path, SimValues simValues) throws IOException {
+        try (PointTrace trace = PointTrace.open(path)) {
+            if (simValues != null && !trace.matches(simValues))
+                throw new IOException("The trace was recorded from another program");
+
+            BenchmarkTimer benchmarkTimer = new BenchmarkTimer();
+            benchmarkTimer.start();
+
+            Canvas paper = plot(trace);
+
+            Path image = getImagePath(path);
+            ImageIO.write(paper, "png", image.toFile());
+
+            System.out.println(path + " -> " + image + " | Timer " + benchmarkTimer.stop() + "ms | Points "
+                    + trace.size());
+        }
+    }
+
+    /**
+     * It plots the trace with the stroke and color, scaled to the size. Connected strokes continue the line from the
+     * last point of the chunk before.
+     *
+     * @param trace The opened trace.
+     * @return The canvas with the plotted trace.
+     */
+    public Canvas plot(PointTrace trace) throws IOException {
+        double scale = size > 0 ? (double) size / trace.getWidth() : 1;
+        Canvas paper = new Canvas((int) Math.round(trace.getWidth() * scale),
+                (int) Math.round(trace.getHeight() * scale), color);
+        double[] last = {Double.NaN, Double.NaN};
+
+        trace.forEachChunk((xs, ys, length) -> {
+            if (scale != 1) {
+                for (int i = 0; i < length; i++) {
+                    xs[i] *= scale;
+                    ys[i] *= scale;
+                }
+            }
+
+            if (strokeMode.isConnected()) {
+                paper.setLines(xs, ys, length, last[0], last[1], strokeMode == StrokeMode.SMOOTH_LINES);
+                last[0] = xs[length - 1];
+                last[1] = ys[length - 1];
+            } else {
+                paper.setPoints(xs, ys, length);
+            }
+        });
+
+        return paper;
+    }
+
+    private Path getImagePath(Path trace) throws IOException {
+        String name = trace.getFileName().toString();
+
+        if (name.endsWith(PointTrace.FILE_EXTENSION))
+            name = name.substring(0, name.length() - PointTrace.FILE_EXTENSION.length());
+
+        Path directory = outputDirectory != null ? outputDirectory : trace.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+
+        return directory.resolve(name + "-trace.png");
+    }
+}
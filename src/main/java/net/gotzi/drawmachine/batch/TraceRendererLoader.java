@@ -0,0 +1,26 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.batch;
+
+import net.gotzi.drawmachine.Application;
+
+import java.io.IOException;
+
+public class TraceRendererLoader {
+
+    /**
+     * Plots recorded .dmpt point traces into PNG files without calculating the kinematics again.
+     *
+     * usage: [-size n] [-color rrggbb] [-stroke dots|lines|smooth] [-program file.dmsp] [-out directory] file.dmpt...
+     */
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+
+        Application application = new TraceRenderer(args);
+        application.start();
+        application.stop();
+    }
+}
@@ -5,9 +5,13 @@
 
 package net.gotzi.drawmachine.control.map;
 
+import java.awt.*;
+
 public interface IMapLayout {
     void resetView();
 
     void repaint();
 
+    void repaint(Rectangle region);
+
 }
@@ -0,0 +1,191 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.control.map;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MapImageCache {
+
+    private static final int MIN_LEVEL_SIZE = 64;
+
+    private final List<BufferedImage> levels = new ArrayList<>();
+
+    private Rectangle dirty;
+
+    private BufferedImage scaled;
+    private Graphics2D scaledGraphics;
+    private boolean scaledDirty = true;
+
+    /**
+     * It builds a mipmap pyramid of the paper, every level has half the size of the level before. Level 0 is the paper
+     * itself.
+     *
+     * @param paper The paper which is shown by the map, it has to be backed by an int raster.
+     */
+    public MapImageCache(BufferedImage paper) {
+        this.levels.add(paper);
+
+        int width = paper.getWidth() / 2;
+        int height = paper.getHeight() / 2;
+
+        while (width >= MIN_LEVEL_SIZE && height >= MIN_LEVEL_SIZE) {
+            this.levels.add(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB));
+            width /= 2;
+            height /= 2;
+        }
+
+        this.dirty = new Rectangle(0, 0, paper.getWidth(), paper.getHeight());
+    }
+
+    /**
+     * Marks the whole paper as changed.
+     */
+    public void invalidate() {
+        BufferedImage paper = levels.get(0);
+        invalidate(new Rectangle(0, 0, paper.getWidth(), paper.getHeight()));
+    }
+
+    /**
+     * Marks a region of the paper as changed, it can be called from any thread
+     *
+     * @param region The changed region in paper pixels.
+     */
+    public synchronized void invalidate(Rectangle region) {
+        if (dirty == null)
+            dirty = new Rectangle(region);
+        else
+            dirty.add(region);
+    }
+
+    private synchronized Rectangle takeDirty() {
+        Rectangle region = dirty;
+        dirty = null;
+        return region;
+    }
+
+    /**
+     * It returns the paper scaled to the given size. Only the dirty region of the pyramid and of the scaled image gets
+     * recalculated, a new image is only allocated if the size has changed
+     *
+     * @param size The width and height of the scaled image.
+     * @return The scaled paper.
+     */
+    public BufferedImage getImage(int size) {
+        BufferedImage paper = levels.get(0);
+        Rectangle region = takeDirty();
+
+        if (region != null) {
+            region = region.intersection(new Rectangle(0, 0, paper.getWidth(), paper.getHeight()));
+
+            if (!region.isEmpty())
+                updateLevels(region);
+        }
+
+        if (scaled == null || scaled.getWidth() != size) {
+            if (scaledGraphics != null)
+                scaledGraphics.dispose();
+
+            this.scaled = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+            this.scaledGraphics = scaled.createGraphics();
+            this.scaledGraphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                    RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            this.scaledDirty = true;
+        }
+
+        if (scaledDirty) {
+            scaledGraphics.setClip(null);
+            drawLevel(size);
+            scaledDirty = false;
+        } else if (region != null && !region.isEmpty()) {
+            double factor = (double) size / paper.getWidth();
+            int x = (int) Math.floor(region.x * factor) - 1;
+            int y = (int) Math.floor(region.y * factor) - 1;
+            int x2 = (int) Math.ceil((region.x + region.width) * factor) + 1;
+            int y2 = (int) Math.ceil((region.y + region.height) * factor) + 1;
+
+            scaledGraphics.setClip(x, y, x2 - x, y2 - y);
+            drawLevel(size);
+        }
+
+        return scaled;
+    }
+
+    /**
+     * Draws the smallest level which is still at least as large as the target size, so zoomed out views are scaled
+     * down from a small level instead of the full paper.
+     */
+    private void drawLevel(int size) {
+        BufferedImage level = levels.get(0);
+
+        for (BufferedImage candidate : levels) {
+            if (candidate.getWidth() < size)
+                break;
+
+            level = candidate;
+        }
+
+        scaledGraphics.drawImage(level, 0, 0, size, size, null);
+    }
+
+    /**
+     * It recalculates the region in every level of the pyramid, each pixel is the average of the 2x2 pixels of the
+     * level before.
+     */
+    private void updateLevels(Rectangle region) {
+        int x1 = region.x;
+        int y1 = region.y;
+        int x2 = region.x + region.width - 1;
+        int y2 = region.y + region.height - 1;
+
+        for (int i = 1; i < levels.size(); i++) {
+            BufferedImage source = levels.get(i - 1);
+            BufferedImage target = levels.get(i);
+
+            x1 >>= 1;
+            y1 >>= 1;
+            x2 = Math.min(x2 >> 1, target.getWidth() - 1);
+            y2 = Math.min(y2 >> 1, target.getHeight() - 1);
+
+            downsample(source, target, x1, y1, x2, y2);
+        }
+    }
+
+    private void downsample(BufferedImage source, BufferedImage target, int x1, int y1, int x2, int y2) {
+        int[] sourcePixels = ((DataBufferInt) source.getRaster().getDataBuffer()).getData();
+        int[] targetPixels = ((DataBufferInt) target.getRaster().getDataBuffer()).getData();
+        int sourceWidth = source.getWidth();
+        int sourceHeight = source.getHeight();
+        int targetWidth = target.getWidth();
+
+        for (int y = y1; y <= y2; y++) {
+            int row1 = 2 * y * sourceWidth;
+            int row2 = Math.min(2 * y + 1, sourceHeight - 1) * sourceWidth;
+
+            for (int x = x1; x <= x2; x++) {
+                int column1 = 2 * x;
+                int column2 = Math.min(2 * x + 1, sourceWidth - 1);
+
+                targetPixels[y * targetWidth + x] = average(
+                        sourcePixels[row1 + column1],
+                        sourcePixels[row1 + column2],
+                        sourcePixels[row2 + column1],
+                        sourcePixels[row2 + column2]);
+            }
+        }
+    }
+
+    private int average(int p1, int p2, int p3, int p4) {
+        int r = (((p1 >> 16) & 0xFF) + ((p2 >> 16) & 0xFF) + ((p3 >> 16) & 0xFF) + ((p4 >> 16) & 0xFF)) >> 2;
+        int g = (((p1 >> 8) & 0xFF) + ((p2 >> 8) & 0xFF) + ((p3 >> 8) & 0xFF) + ((p4 >> 8) & 0xFF)) >> 2;
+        int b = ((p1 & 0xFF) + (p2 & 0xFF) + (p3 & 0xFF) + (p4 & 0xFF)) >> 2;
+
+        return (r << 16) | (g << 8) | b;
+    }
+}
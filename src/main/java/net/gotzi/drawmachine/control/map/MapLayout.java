@@ -6,7 +6,6 @@
 package net.gotzi.drawmachine.control.map;
 
 import net.gotzi.drawmachine.DrawMachineSim;
-import net.gotzi.drawmachine.utils.ImageUtils;
 
 import java.awt.*;
 import java.awt.event.*;
@@ -27,13 +26,19 @@ public class MapLayout implements MouseListener, MouseMotionListener, MouseWheel
 
     private final int minScrollSize;
 
-    private final BufferedImage paper;
+    private final MapImageCache imageCache;
+
+    private final int paperWidth;
+
+    private final int paperHeight;
 
     private final MapPanel mapPanel;
 
     public MapLayout(MapPanel mapPanel, BufferedImage paper, int maxScrollSize, int minScrollSize, int startScroll) {
         this.mapPanel = mapPanel;
-        this.paper = paper;
+        this.imageCache = new MapImageCache(paper);
+        this.paperWidth = paper.getWidth();
+        this.paperHeight = paper.getHeight();
         this.x = 0;
         this.y = 0;
         this.maxScrollSize = maxScrollSize;
@@ -200,14 +205,14 @@ public class MapLayout implements MouseListener, MouseMotionListener, MouseWheel
     }
 
     /**
-     * It resizes the image to the size of the scroll pane, and then draws it to the panel
+     * It draws the paper scaled to the size of the scroll pane. The scaled image comes from the image cache, so it is
+     * only recalculated where the paper has changed or when the zoom level changes
      *
      * @param graphics The graphics object that is used to draw the image.
      */
     private void repaintPanel(Graphics graphics) {
-        BufferedImage resizedImage = ImageUtils.resizeImage(paper, scroll, scroll);
-        Graphics2D graphics2D = (Graphics2D) graphics;
-        graphics2D.drawImage(resizedImage, 0, 0, scroll, scroll, null);
+        BufferedImage resizedImage = imageCache.getImage(scroll);
+        graphics.drawImage(resizedImage, 0, 0, null);
     }
 
     /**
@@ -228,9 +233,32 @@ public class MapLayout implements MouseListener, MouseMotionListener, MouseWheel
         layoutContainer(mapPanel);
     }
 
+    /**
+     * The whole paper is marked as changed and the map gets repainted.
+     */
     @Override
     public void repaint() {
+        this.imageCache.invalidate();
         this.mapCopyPanel.repaint();
     }
+
+    /**
+     * Only the given region of the paper is marked as changed, and only its scaled counterpart on the map gets repainted.
+     *
+     * @param region The changed region in paper pixels.
+     */
+    @Override
+    public void repaint(Rectangle region) {
+        this.imageCache.invalidate(region);
+
+        double factorX = (double) scroll / paperWidth;
+        double factorY = (double) scroll / paperHeight;
+        int x = (int) Math.floor(region.x * factorX) - 1;
+        int y = (int) Math.floor(region.y * factorY) - 1;
+        int x2 = (int) Math.ceil((region.x + region.width) * factorX) + 1;
+        int y2 = (int) Math.ceil((region.y + region.height) * factorY) + 1;
+
+        this.mapCopyPanel.repaint(x, y, x2 - x, y2 - y);
+    }
 }
 
@@ -16,6 +16,7 @@ import java.awt.*;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
 import java.awt.event.MouseWheelListener;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class MapPanel extends JPanel {
     private final Dimension dimension;
@@ -24,10 +25,17 @@ public class MapPanel extends JPanel {
 
     private final Simulation simulation;
 
+    private final Canvas paper;
+    private final Timer frameTimer;
+    private final AtomicReference<SimRenderState> latestState;
+
     public MapPanel(Dimension dimension, Simulation simulation, int maxScrollSize, int minScrollSize, int startScroll) {
         this.dimension = dimension;
         
-        Canvas paper = new Canvas(dimension.width, dimension.height, Color.BLACK);
+        this.paper = new Canvas(dimension.width, dimension.height, Color.BLACK);
+        this.latestState = new AtomicReference<>();
+        this.frameTimer = new Timer(frameDelay(), event -> flushFrame());
+        this.frameTimer.setCoalesce(true);
 
         this.simRenderer = new SimRenderer(paper, this::updateState);
         this.mapLayout = new MapLayout(this, paper, maxScrollSize, minScrollSize, startScroll);
@@ -47,9 +55,55 @@ public class MapPanel extends JPanel {
         addMouseWheelListener((MouseWheelListener) mapLayout);
     }
 
+    /**
+     * It is called by the render thread when a render starts or finishes. The state is only stored and the frame timer
+     * is started, which repaints the map once per display refresh while the render is running
+     *
+     * @param state The current render state.
+     */
     private void updateState(SimRenderState state) {
-        mapLayout.repaint();
-        this.simulation.updateState(state);
+        this.latestState.set(state);
+        this.frameTimer.start();
+    }
+
+    /**
+     * It runs on the event dispatch thread and repaints the region of the canvas which has changed since the last
+     * frame. After the render has finished, the last frame is flushed and the timer stops.
+     */
+    private void flushFrame() {
+        boolean running = simRenderer.getProgress().isRunning();
+
+        Rectangle region = paper.takeDirtyRegion();
+        if (region != null)
+            mapLayout.repaint(region);
+
+        SimRenderState state = latestState.getAndSet(null);
+        if (state != null)
+            this.simulation.updateState(state);
+
+        if (!running) {
+            this.frameTimer.stop();
+
+            if (simRenderer.getProgress().isRunning())
+                this.frameTimer.start();
+        }
+    }
+
+    /**
+     * @return The time between two display refreshes in milliseconds, 60 Hz if the refresh rate is unknown.
+     */
+    private static int frameDelay() {
+        int refreshRate = DisplayMode.REFRESH_RATE_UNKNOWN;
+
+        try {
+            refreshRate = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDisplayMode().getRefreshRate();
+        } catch (HeadlessException ignored) {}
+
+        if (refreshRate <= 0)
+            refreshRate = 60;
+
+        return 1000 / refreshRate;
     }
 
     public SimRenderer getSimRenderer() {
@@ -5,19 +5,58 @@
 
 package net.gotzi.drawmachine.sim;
 
-import net.gotzi.drawmachine.DrawMachineSim;
 import net.gotzi.drawmachine.error.PencilOutOfCanvas;
+import net.gotzi.drawmachine.sim.algorithm.PointBuffer;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
 
 public class Canvas extends BufferedImage {
 
+    private static final int[] BRUSH_X = {0, 1, -1, 0, 0};
+    private static final int[] BRUSH_Y = {0, 0, 0, 1, -1};
+
+    /**
+     * Segments which are longer than this factor times the size of the canvas are skipped, they can only come from
+     * positions the machine can't reach.
+     */
+    private static final int MAX_SEGMENT_FACTOR = 4;
+
     private final Color color;
+    private final int[] pixels;
+    private final int[] brushOffsets;
+    private final int rgb;
+
+    private final Object dirtyLock = new Object();
+    private int dirtyMinX = Integer.MAX_VALUE;
+    private int dirtyMinY = Integer.MAX_VALUE;
+    private int dirtyMaxX = Integer.MIN_VALUE;
+    private int dirtyMaxY = Integer.MIN_VALUE;
+
+    private final Object temporaryMarksLock = new Object();
+    private int[] temporaryIndices = new int[0];
+    private int[] temporaryPixels = new int[0];
+    private int temporaryCount = 0;
+
+    private final Object coverageLock = new Object();
+    private short[] coverage;
+    private int[] coveredIndices = new int[0];
+    private int coveredCount = 0;
+
+    private volatile boolean blank = true;
 
     public Canvas(int width, int height, Color color) {
         super(width, height, BufferedImage.TYPE_INT_RGB);
         this.color = color;
+        this.rgb = color.getRGB() & 0xFFFFFF;
+        this.pixels = ((DataBufferInt) getRaster().getDataBuffer()).getData();
+
+        this.brushOffsets = new int[BRUSH_X.length];
+        for (int i = 0; i < BRUSH_X.length; i++)
+            this.brushOffsets[i] = BRUSH_Y[i] * width + BRUSH_X[i];
+
         this.reset();
     }
 
@@ -25,48 +64,519 @@ public class Canvas extends BufferedImage {
      * For every pixel in the image, set the color to white.
      */
     public void reset() {
-        for (int i = 0; i < getWidth(); i++) {
-            for (int j = 0; j < getHeight(); j++) {
-                setRGB(i, j, Color.WHITE.getRGB());
-            }
-        }
+        Arrays.fill(pixels, Color.WHITE.getRGB() & 0xFFFFFF);
+        markDirty(0, 0, getWidth() - 1, getHeight() - 1);
+        this.blank = true;
     }
 
     /**
      * "Set the pixel at the given coordinates to the current color."
      *
-     * The first thing we do is check if the coordinates are within the bounds of the canvas. If they are, we set the pixel
-     * to the current color. If they aren't, we throw an exception
+     * The coordinates are mirrored on both axes, points outside the canvas are ignored. The pixels are written straight
+     * into the raster without a lock: every writer stores the same color, so concurrent writes can't corrupt a pixel
      *
      * @param x The x coordinate of the point to be set.
      * @param y The y coordinate of the pixel.
      */
-    public synchronized void setPoint(int x, int y) throws PencilOutOfCanvas {
-        try {
-            //System.out.println("X: " + (getWidth() - x) + " Y:" + (getHeight() - y));
-            setPixelPoint(getWidth() - x,getHeight() - y, color);
-        } catch (ArrayIndexOutOfBoundsException ignored) {
-            //throw new PencilOutOfCanvas(DrawMachineSim.getInstance().getWindow(), "X: " + (getWidth() - x) + " Y: " + (getHeight() - y));
+    public void setPoint(int x, int y) throws PencilOutOfCanvas {
+        int pixelX = getWidth() - x;
+        int pixelY = getHeight() - y;
+
+        setPixelPoint(pixelX, pixelY);
+        markDirty(pixelX - 1, pixelY - 1, pixelX + 1, pixelY + 1);
+
+        if (blank)
+            this.blank = false;
+    }
+
+    /**
+     * It sets all points of the buffer like {@link #setPoint(int, int)}, but only merges their bounds into the dirty
+     * region once per chunk, so many threads can plot their buffers at the same time
+     *
+     * @param points The points to be set.
+     */
+    public void setPoints(PointBuffer points) {
+        points.forEachChunk(this::setPoints);
+    }
+
+    /**
+     * It sets the first points of the arrays like {@link #setPoints(PointBuffer)}.
+     *
+     * @param xs The x coordinates of the points.
+     * @param ys The y coordinates of the points.
+     * @param size The amount of points to be set.
+     */
+    public void setPoints(double[] xs, double[] ys, int size) {
+        if (size == 0)
+            return;
+
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+
+        for (int i = 0; i < size; i++) {
+            int pixelX = getWidth() - (int) xs[i];
+            int pixelY = getHeight() - (int) ys[i];
+
+            setPixelPoint(pixelX, pixelY);
+
+            minX = Math.min(minX, pixelX);
+            minY = Math.min(minY, pixelY);
+            maxX = Math.max(maxX, pixelX);
+            maxY = Math.max(maxY, pixelY);
         }
+
+        markDirty(minX - 1, minY - 1, maxX + 1, maxY + 1);
+        this.blank = false;
     }
-  
+
     /**
-     * Set the pixel at (x,y) to the given color, and set the pixels around it to the same color.
+     * It sets a single pixel for every point, without the brush. It is used for previews of one pixel wide lines, the
+     * pixels lie on the lines which are drawn later
+     *
+     * @param xs The x coordinates of the points.
+     * @param ys The y coordinates of the points.
+     * @param size The amount of points to be set.
+     */
+    public void setMarks(double[] xs, double[] ys, int size) {
+        if (size == 0)
+            return;
+
+        int width = getWidth();
+        int height = getHeight();
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+
+        for (int i = 0; i < size; i++) {
+            int pixelX = width - (int) xs[i];
+            int pixelY = height - (int) ys[i];
+
+            if (pixelX >= 0 && pixelX < width && pixelY >= 0 && pixelY < height)
+                pixels[pixelY * width + pixelX] = rgb;
+
+            minX = Math.min(minX, pixelX);
+            minY = Math.min(minY, pixelY);
+            maxX = Math.max(maxX, pixelX);
+            maxY = Math.max(maxY, pixelY);
+        }
+
+        markDirty(minX, minY, maxX, maxY);
+        this.blank = false;
+    }
+
+    /**
+     * It sets a single pixel for every point like {@link #setMarks(double[], double[], int)}, but remembers the color
+     * the pixel had before. It is used for previews of anti-aliased lines, which don't cover the marks with the color
+     * of the pencil, so the marks have to be removed by {@link #clearTemporaryMarks()} before the lines are drawn
+     *
+     * @param xs The x coordinates of the points.
+     * @param ys The y coordinates of the points.
+     * @param size The amount of points to be set.
+     */
+    public void setTemporaryMarks(double[] xs, double[] ys, int size) {
+        if (size == 0)
+            return;
+
+        int width = getWidth();
+        int height = getHeight();
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+
+        synchronized (temporaryMarksLock) {
+            for (int i = 0; i < size; i++) {
+                int pixelX = width - (int) xs[i];
+                int pixelY = height - (int) ys[i];
+
+                if (pixelX < 0 || pixelX >= width || pixelY < 0 || pixelY >= height)
+                    continue;
+
+                int index = pixelY * width + pixelX;
+
+                // a pixel in the color of the pencil is either drawn or marked already, only the first mark of a
+                // pixel knows its color
+                if (pixels[index] == rgb)
+                    continue;
+
+                if (temporaryCount == temporaryIndices.length) {
+                    int capacity = Math.max(1024, temporaryCount * 2);
+                    this.temporaryIndices = Arrays.copyOf(temporaryIndices, capacity);
+                    this.temporaryPixels = Arrays.copyOf(temporaryPixels, capacity);
+                }
+
+                temporaryIndices[temporaryCount] = index;
+                temporaryPixels[temporaryCount] = pixels[index];
+                temporaryCount++;
+                pixels[index] = rgb;
+
+                minX = Math.min(minX, pixelX);
+                minY = Math.min(minY, pixelY);
+                maxX = Math.max(maxX, pixelX);
+                maxY = Math.max(maxY, pixelY);
+            }
+        }
+
+        if (minX <= maxX) {
+            markDirty(minX, minY, maxX, maxY);
+            this.blank = false;
+        }
+    }
+
+    /**
+     * It gives every pixel set by {@link #setTemporaryMarks(double[], double[], int)} its color from before back.
+     */
+    public void clearTemporaryMarks() {
+        synchronized (temporaryMarksLock) {
+            if (temporaryCount == 0)
+                return;
+
+            for (int i = 0; i < temporaryCount; i++)
+                pixels[temporaryIndices[i]] = temporaryPixels[i];
+
+            this.temporaryIndices = new int[0];
+            this.temporaryPixels = new int[0];
+            this.temporaryCount = 0;
+        }
+
+        markDirty(0, 0, getWidth() - 1, getHeight() - 1);
+    }
+
+    /**
+     * It connects the points with lines, from the given start point to the first point and from every point to the
+     * next one.
+     *
+     * @param xs The x coordinates of the points.
+     * @param ys The y coordinates of the points.
+     * @param size The amount of points.
+     * @param startX The x coordinate of the point before the first one, or NaN if the path starts at the first point.
+     * @param startY The y coordinate of the point before the first one.
+     * @param smooth If the lines are anti-aliased (Xiaolin Wu) instead of one pixel wide (Bresenham). A pixel which
+     *               several of the lines cover is blended once, with the largest coverage.
+     */
+    public void setLines(double[] xs, double[] ys, int size, double startX, double startY, boolean smooth) {
+        if (size == 0)
+            return;
+
+        if (smooth) {
+            synchronized (coverageLock) {
+                drawLines(xs, ys, size, startX, startY, true);
+                blendCoverage();
+            }
+        } else {
+            drawLines(xs, ys, size, startX, startY, false);
+        }
+    }
+
+    private void drawLines(double[] xs, double[] ys, int size, double startX, double startY, boolean smooth) {
+        double previousX = Double.isNaN(startX) ? xs[0] : startX;
+        double previousY = Double.isNaN(startX) ? ys[0] : startY;
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+
+        for (int i = 0; i < size; i++) {
+            drawLine(previousX, previousY, xs[i], ys[i], smooth);
+
+            previousX = xs[i];
+            previousY = ys[i];
+
+            minX = Math.min(minX, previousX);
+            minY = Math.min(minY, previousY);
+            maxX = Math.max(maxX, previousX);
+            maxY = Math.max(maxY, previousY);
+        }
+
+        if (!Double.isNaN(startX)) {
+            minX = Math.min(minX, startX);
+            minY = Math.min(minY, startY);
+            maxX = Math.max(maxX, startX);
+            maxY = Math.max(maxY, startY);
+        }
+
+        markDirty(getWidth() - (int) maxX - 2, getHeight() - (int) maxY - 2,
+                getWidth() - (int) minX + 2, getHeight() - (int) minY + 2);
+        this.blank = false;
+    }
+
+    /**
+     * It draws a single line like {@link #setLines(double[], double[], int, double, double, boolean)}.
+     */
+    public void setLine(double x1, double y1, double x2, double y2, boolean smooth) {
+        if (smooth) {
+            synchronized (coverageLock) {
+                drawLine(x1, y1, x2, y2, true);
+                blendCoverage();
+            }
+        } else {
+            drawLine(x1, y1, x2, y2, false);
+        }
+
+        markDirty(getWidth() - (int) Math.max(x1, x2) - 2, getHeight() - (int) Math.max(y1, y2) - 2,
+                getWidth() - (int) Math.min(x1, x2) + 2, getHeight() - (int) Math.min(y1, y2) + 2);
+        this.blank = false;
+    }
+
+    /**
+     * The coordinates are mirrored like in {@link #setPoint(int, int)}, invalid and overlong segments are skipped.
+     */
+    private void drawLine(double x1, double y1, double x2, double y2, boolean smooth) {
+        int width = getWidth();
+        int height = getHeight();
+        double maxLength = MAX_SEGMENT_FACTOR * (double) (width + height);
+
+        if (Double.isNaN(x1 + y1 + x2 + y2) || Math.abs(x2 - x1) + Math.abs(y2 - y1) > maxLength)
+            return;
+
+        if (smooth)
+            drawSmoothLine(width - x1, height - y1, width - x2, height - y2);
+        else
+            drawPixelLine(width - (int) x1, height - (int) y1, width - (int) x2, height - (int) y2);
+    }
+
+    /**
+     * Bresenham's line algorithm, it only uses integer steps.
+     */
+    private void drawPixelLine(int x1, int y1, int x2, int y2) {
+        int width = getWidth();
+        int height = getHeight();
+        int dx = Math.abs(x2 - x1);
+        int dy = -Math.abs(y2 - y1);
+        int stepX = x1 < x2 ? 1 : -1;
+        int stepY = y1 < y2 ? 1 : -1;
+        int error = dx + dy;
+
+        while (true) {
+            if (x1 >= 0 && x1 < width && y1 >= 0 && y1 < height)
+                pixels[y1 * width + x1] = rgb;
+
+            if (x1 == x2 && y1 == y2)
+                return;
+
+            int error2 = 2 * error;
+
+            if (error2 >= dy) {
+                error += dy;
+                x1 += stepX;
+            }
+
+            if (error2 <= dx) {
+                error += dx;
+                y1 += stepY;
+            }
+        }
+    }
+
+    /**
+     * Xiaolin Wu's line algorithm, every pixel next to the line is covered by the part of it which the line covers.
+     * The pixels are blended by {@link #blendCoverage()}, so the shared end of two lines and many lines shorter than
+     * a pixel don't darken a pixel more than one line through it.
+     */
+    private void drawSmoothLine(double x1, double y1, double x2, double y2) {
+        boolean steep = Math.abs(y2 - y1) > Math.abs(x2 - x1);
+        double swap;
+
+        if (steep) {
+            swap = x1; x1 = y1; y1 = swap;
+            swap = x2; x2 = y2; y2 = swap;
+        }
+
+        if (x1 > x2) {
+            swap = x1; x1 = x2; x2 = swap;
+            swap = y1; y1 = y2; y2 = swap;
+        }
+
+        double dx = x2 - x1;
+        double gradient = dx == 0 ? 1 : (y2 - y1) / dx;
+
+        int startX = (int) Math.round(x1);
+        double startY = y1 + gradient * (startX - x1);
+        double startGap = 1 - fraction(x1 + 0.5);
+        coverPixel(steep, startX, (int) Math.floor(startY), (1 - fraction(startY)) * startGap);
+        coverPixel(steep, startX, (int) Math.floor(startY) + 1, fraction(startY) * startGap);
+
+        int endX = (int) Math.round(x2);
+        double endY = y2 + gradient * (endX - x2);
+        double endGap = fraction(x2 + 0.5);
+        coverPixel(steep, endX, (int) Math.floor(endY), (1 - fraction(endY)) * endGap);
+        coverPixel(steep, endX, (int) Math.floor(endY) + 1, fraction(endY) * endGap);
+
+        double y = startY + gradient;
+
+        for (int x = startX + 1; x < endX; x++) {
+            int floorY = (int) Math.floor(y);
+            double coverage = y - floorY;
+
+            coverPixel(steep, x, floorY, 1 - coverage);
+            coverPixel(steep, x, floorY + 1, coverage);
+            y += gradient;
+        }
+    }
+
+    private double fraction(double value) {
+        return value - Math.floor(value);
+    }
+
+    private void coverPixel(boolean steep, int x, int y, double pixelCoverage) {
+        if (steep) {
+            int swap = x;
+            x = y;
+            y = swap;
+        }
+
+        int width = getWidth();
+        int alpha = (int) (pixelCoverage * 256);
+
+        if (alpha <= 0 || x < 0 || x >= width || y < 0 || y >= getHeight())
+            return;
+
+        if (coverage == null)
+            coverage = new short[pixels.length];
+
+        int index = y * width + x;
+
+        if (coverage[index] == 0) {
+            if (coveredCount == coveredIndices.length)
+                coveredIndices = Arrays.copyOf(coveredIndices, Math.max(1024, 2 * coveredCount));
+
+            coveredIndices[coveredCount++] = index;
+        }
+
+        coverage[index] = (short) Math.max(coverage[index], Math.min(alpha, 256));
+    }
+
+    /**
+     * It blends every covered pixel once with the color of the pencil and clears the coverage.
+     */
+    private void blendCoverage() {
+        for (int i = 0; i < coveredCount; i++) {
+            int index = coveredIndices[i];
+            int alpha = coverage[index];
+            int pixel = pixels[index];
+
+            int r = (pixel >> 16) & 0xFF;
+            int g = (pixel >> 8) & 0xFF;
+            int b = pixel & 0xFF;
+
+            r += ((((rgb >> 16) & 0xFF) - r) * alpha) >> 8;
+            g += ((((rgb >> 8) & 0xFF) - g) * alpha) >> 8;
+            b += (((rgb & 0xFF) - b) * alpha) >> 8;
+
+            pixels[index] = (r << 16) | (g << 8) | b;
+            coverage[index] = 0;
+        }
+
+        coveredCount = 0;
+    }
+
+    /**
+     * @return True if nothing was drawn since the last reset.
+     */
+    public boolean isBlank() {
+        return blank;
+    }
+
+    /**
+     * It returns one bit per pixel, set where the pixel has the color of the pencil.
+     *
+     * @return The bits of all pixels row by row, 64 pixels per long.
+     */
+    public long[] getPenPixels() {
+        long[] bits = new long[(pixels.length + 63) >>> 6];
+
+        for (int i = 0; i < pixels.length; i++) {
+            if (pixels[i] == rgb)
+                bits[i >>> 6] |= 1L << i;
+        }
+
+        return bits;
+    }
+
+    /**
+     * It draws the pixels of the bits returned by {@link #getPenPixels()} in the color of the pencil, so a cached
+     * render ends up on the canvas like a new one.
+     *
+     * @param bits The bits of all pixels row by row, 64 pixels per long.
+     */
+    public void setPenPixels(long[] bits) {
+        int length = Math.min(pixels.length, bits.length << 6);
+
+        for (int i = 0; i < length; i++) {
+            if ((bits[i >>> 6] & (1L << i)) != 0)
+                pixels[i] = rgb;
+        }
+
+        markDirty(0, 0, getWidth() - 1, getHeight() - 1);
+        this.blank = false;
+    }
+
+    private void markDirty(int minX, int minY, int maxX, int maxY) {
+        synchronized (dirtyLock) {
+            dirtyMinX = Math.min(dirtyMinX, minX);
+            dirtyMinY = Math.min(dirtyMinY, minY);
+            dirtyMaxX = Math.max(dirtyMaxX, maxX);
+            dirtyMaxY = Math.max(dirtyMaxY, maxY);
+        }
+    }
+
+    /**
+     * It returns the bounding box of all pixels which were changed since the last call and clears it.
+     *
+     * @return The changed region, or null if nothing inside the canvas has changed.
+     */
+    public Rectangle takeDirtyRegion() {
+        int minX, minY, maxX, maxY;
+
+        synchronized (dirtyLock) {
+            minX = Math.max(dirtyMinX, 0);
+            minY = Math.max(dirtyMinY, 0);
+            maxX = Math.min(dirtyMaxX, getWidth() - 1);
+            maxY = Math.min(dirtyMaxY, getHeight() - 1);
+
+            dirtyMinX = Integer.MAX_VALUE;
+            dirtyMinY = Integer.MAX_VALUE;
+            dirtyMaxX = Integer.MIN_VALUE;
+            dirtyMaxY = Integer.MIN_VALUE;
+        }
+
+        if (minX > maxX || minY > maxY)
+            return null;
+
+        return new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+    }
+
+    /**
+     * Set the pixel at (x,y) to the color of the canvas, and set the pixels around it to the same color.
      *
      * @param x The x coordinate of the pixel.
      * @param y The y coordinate of the pixel.
-     * @param color the color of the pixel
      */
-    private void setPixelPoint(int x, int y, Color color) {
-        setRGB(x, y, color.getRGB());
-        if (x < getHeight())
-            setRGB(x+1, y, color.getRGB());
-        if (x > 0)
-            setRGB(x-1, y, color.getRGB());
-        if (y < getWidth())
-            setRGB(x, y+1, color.getRGB());
-        if (y > 0)
-            setRGB(x, y-1, color.getRGB());
+    private void setPixelPoint(int x, int y) {
+        int width = getWidth();
+        int height = getHeight();
+        int index = y * width + x;
+
+        if (x > 0 && x < width - 1 && y > 0 && y < height - 1) {
+            for (int offset : brushOffsets)
+                pixels[index + offset] = rgb;
+
+            return;
+        }
+
+        for (int i = 0; i < brushOffsets.length; i++) {
+            int brushX = x + BRUSH_X[i];
+            int brushY = y + BRUSH_Y[i];
+
+            if (brushX >= 0 && brushX < width && brushY >= 0 && brushY < height)
+                pixels[index + brushOffsets[i]] = rgb;
+        }
     }
 
+    public Color getColor() {
+        return color;
+    }
 }
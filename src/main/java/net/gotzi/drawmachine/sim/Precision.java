@@ -0,0 +1,22 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim;
+
+public enum Precision {
+    EXACT("Exact"),
+    APPROXIMATE("Approximate");
+
+    private final String displayName;
+
+    Precision(String displayName) {
+        this.displayName = displayName;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RenderProgress {
+
+    private final AtomicLong completed = new AtomicLong();
+
+    private volatile long total = 0;
+    private volatile long startTime = 0;
+    private volatile boolean running = false;
+    private final AtomicInteger renders = new AtomicInteger();
+
+    /**
+     * It resets the progress for a new render.
+     *
+     * @param total The amount of samples the render will calculate.
+     */
+    public void start(long total) {
+        this.completed.set(0);
+        this.total = total;
+        this.startTime = System.nanoTime();
+        this.renders.incrementAndGet();
+        this.running = true;
+    }
+
+    /**
+     * Sets the amount of calculated samples. It is meant for a single render thread, it's only a plain store, so it
+     * can be called for every sample
+     *
+     * @param completed The amount of calculated samples.
+     */
+    public void set(long completed) {
+        this.completed.lazySet(completed);
+    }
+
+    /**
+     * Adds calculated samples, it is meant for many render threads which report their finished work.
+     *
+     * @param samples The amount of newly calculated samples.
+     */
+    public void add(long samples) {
+        this.completed.addAndGet(samples);
+    }
+
+    public void finish() {
+        this.running = false;
+    }
+
+    /**
+     * It marks a render as finished without calculating it, for example if its result was cached.
+     *
+     * @param total The amount of samples of the render.
+     */
+    public void complete(long total) {
+        start(total);
+        this.completed.set(total);
+        finish();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * A view which starts a render can compare the count to see if the render has started, the count also changes
+     * for a render which was completed from the cache
+     *
+     * @return The amount of renders which were started.
+     */
+    public int getRenders() {
+        return renders.get();
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return The calculated part of the render between 0 and 1.
+     */
+    public double getFraction() {
+        long total = this.total;
+
+        if (total <= 0)
+            return 0;
+
+        return Math.min(1.0, (double) getCompleted() / total);
+    }
+
+    /**
+     * @return The average amount of samples per second since the render has started.
+     */
+    public double getSamplesPerSecond() {
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+
+        if (seconds <= 0)
+            return 0;
+
+        return getCompleted() / seconds;
+    }
+
+    /**
+     * @return The estimated time until the render is finished in milliseconds, or -1 if it can't be estimated yet.
+     */
+    public long getEtaMillis() {
+        double samplesPerSecond = getSamplesPerSecond();
+
+        if (samplesPerSecond <= 0)
+            return -1;
+
+        return (long) (Math.max(0, total - getCompleted()) / samplesPerSecond * 1000);
+    }
+}
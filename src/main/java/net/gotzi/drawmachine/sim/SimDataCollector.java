@@ -20,27 +20,17 @@ public class SimDataCollector {
     private SimGCodeTab simGCodeTab;
 
     public SimProgramInfo collectProgram() {
-        GCode gCode = simGCodeTab.loadGCode(false);
+        GCode gCode = simGCodeTab.loadGCode();
         SimEditorValues editorValues = simulationTab.getSimEditorView().getSimEditorValues();
         return new SimProgramInfo(editorValues, gCode);
     }
 
     public SimValues collectValues() {
-        GCode gCode = simGCodeTab.loadGCode(true);
+        GCode gCode = simGCodeTab.loadGCode();
 
         SimEditorValues editorValues = simulationTab.getSimEditorView().getSimEditorValues();
 
-        return new SimValues(
-                editorValues.middlePoint(),
-                editorValues.m1Point(),
-                editorValues.m2Point(),
-                editorValues.m1Horn(),
-                editorValues.m2Horn(),
-                editorValues.mainPole(),
-                editorValues.supportPole(),
-                editorValues.intersection(),
-                gCode
-        );
+        return SimValues.from(editorValues, gCode);
     }
 
     public void setSimGCodeTab(SimGCodeTab simGCodeTab) {
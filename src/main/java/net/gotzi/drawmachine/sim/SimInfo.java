@@ -20,11 +20,78 @@ public class SimInfo {
 
     private final boolean fastMode;
 
+    private final StrokeMode strokeMode;
+
+    private final double segmentLength;
+
+    private final Precision precision;
+
     public SimInfo(SimValues simValues, SimMonitor simMonitor) {
         this.simValues = simValues;
         this.stepFactor = (double)simMonitor.getSimulationSteps().get()/100.0;
         this.speed = simMonitor.getSimulationSpeed();
         this.fastMode = simMonitor.isFastMode();
+        this.strokeMode = simMonitor.getStrokeMode();
+        this.segmentLength = simMonitor.getSegmentLength();
+        this.precision = simMonitor.getPrecision();
+    }
+
+    /**
+     * Creates the information for a render without a monitor, the simulation speed is unlimited.
+     *
+     * @param simValues The values of the program.
+     * @param simulationSteps The simulation accuracy as set in the monitor, 100 equals one sample per time unit.
+     * @param fastMode If the render should use the fast logic.
+     */
+    public SimInfo(SimValues simValues, int simulationSteps, boolean fastMode) {
+        this(simValues, simulationSteps, fastMode, StrokeMode.DOTS);
+    }
+
+    /**
+     * Creates the information for a render without a monitor, the simulation speed is unlimited.
+     *
+     * @param simValues The values of the program.
+     * @param simulationSteps The simulation accuracy as set in the monitor, 100 equals one sample per time unit.
+     * @param fastMode If the render should use the fast logic.
+     * @param strokeMode How the samples are drawn onto the canvas.
+     */
+    public SimInfo(SimValues simValues, int simulationSteps, boolean fastMode, StrokeMode strokeMode) {
+        this(simValues, simulationSteps, fastMode, strokeMode, 0);
+    }
+
+    /**
+     * Creates the information for a render without a monitor, the simulation speed is unlimited.
+     *
+     * @param simValues The values of the program.
+     * @param simulationSteps The simulation accuracy as set in the monitor, 100 equals one sample per time unit.
+     * @param fastMode If the render should use the fast logic.
+     * @param strokeMode How the samples are drawn onto the canvas.
+     * @param segmentLength The length in pixels adaptive steps aim for, or 0 to sample every fixed step.
+     */
+    public SimInfo(SimValues simValues, int simulationSteps, boolean fastMode, StrokeMode strokeMode,
+                   double segmentLength) {
+        this(simValues, simulationSteps, fastMode, strokeMode, segmentLength, Precision.EXACT);
+    }
+
+    /**
+     * Creates the information for a render without a monitor, the simulation speed is unlimited.
+     *
+     * @param simValues The values of the program.
+     * @param simulationSteps The simulation accuracy as set in the monitor, 100 equals one sample per time unit.
+     * @param fastMode If the render should use the fast logic.
+     * @param strokeMode How the samples are drawn onto the canvas.
+     * @param segmentLength The length in pixels adaptive steps aim for, or 0 to sample every fixed step.
+     * @param precision The precision of the trigonometric functions of the kernel.
+     */
+    public SimInfo(SimValues simValues, int simulationSteps, boolean fastMode, StrokeMode strokeMode,
+                   double segmentLength, Precision precision) {
+        this.simValues = simValues;
+        this.stepFactor = (double)simulationSteps/100.0;
+        this.speed = new AtomicInteger(1000);
+        this.fastMode = fastMode;
+        this.strokeMode = strokeMode;
+        this.segmentLength = segmentLength;
+        this.precision = precision;
     }
 
     public SimValues getSimValues() {
@@ -42,4 +109,23 @@ public class SimInfo {
     public boolean isFastMode() {
         return fastMode;
     }
+
+    public StrokeMode getStrokeMode() {
+        return strokeMode;
+    }
+
+    /**
+     * @return The length in pixels adaptive steps aim for, or 0 if every fixed step is sampled.
+     */
+    public double getSegmentLength() {
+        return segmentLength;
+    }
+
+    public boolean isAdaptive() {
+        return segmentLength > 0;
+    }
+
+    public Precision getPrecision() {
+        return precision;
+    }
 }
@@ -5,31 +5,45 @@
 
 package net.gotzi.drawmachine.sim;
 
+import net.gotzi.drawmachine.DrawMachineSim;
 import net.gotzi.drawmachine.api.Action;
 import net.gotzi.drawmachine.api.sim.SimCompletedInfo;
 import net.gotzi.drawmachine.api.sim.SimRenderState;
+import net.gotzi.drawmachine.sim.algorithm.RenderPool;
 import net.gotzi.drawmachine.sim.algorithm.Renderer;
+import net.gotzi.drawmachine.sim.algorithm.SimGCodeLoader;
 import net.gotzi.drawmachine.sim.algorithm.logic.FastLogic;
 import net.gotzi.drawmachine.sim.algorithm.logic.Logic;
 import net.gotzi.drawmachine.sim.algorithm.logic.SimLogic;
+import net.gotzi.drawmachine.sim.cache.CachedRender;
+import net.gotzi.drawmachine.sim.cache.RenderCache;
 import net.gotzi.drawmachine.sim.editor.SimInfoParameters;
-import net.gotzi.drawmachine.utils.BenchmarkTimer;
+
+import javax.swing.*;
+import java.util.concurrent.CompletableFuture;
 
 public class SimRenderer implements Renderer {
 
     private final Canvas paper;
     private final Action<SimRenderState> update;
+    private final RenderProgress progress;
+    private final RenderCache renderCache;
 
     private boolean running = false;
+    private FastLogic fastLogic;
+    private CompletableFuture<Void> lookup;
 
     public SimRenderer(Canvas canvas, Action<SimRenderState> update) {
         this.paper = canvas;
         this.update = update;
+        this.progress = new RenderProgress();
+        this.renderCache = DrawMachineSim.getInstance().getRenderCache();
     }
 
     /**
      * If the simulation is not running, set it to running, and if it's not in fast mode, run the normal simulation logic,
-     * otherwise run the fast simulation logic
+     * otherwise run the fast simulation logic. A fast render looks up the render cache on the render pool first, the
+     * cached pixels are drawn or the render is started on the event dispatch thread afterwards
      *
      * @param simInfo The information about the simulation.
      */
@@ -39,40 +53,142 @@ public class SimRenderer implements Renderer {
             setRunning(true);
 
             if (!simInfo.isFastMode()) {
-                SimLogic logic = new SimLogic(simInfo, this, update, this.paper);
+                SimLogic logic = new SimLogic(simInfo, this, progress, update, this.paper);
 
                 Thread thread = new Thread(() -> {
                     logic.run();
                     setRunning(false);
 
-                    SimCompletedInfo simCompletedInfo = logic.getSimCompletedInfo();
-
-                    simInfoParameters.clear();
-                    simInfoParameters.println("Timer ms: " + simCompletedInfo.calculationTime());
-                    simInfoParameters.println("Travel: " + (simCompletedInfo.travelDistance() / 10));
+                    printCompletedInfo(logic.getSimCompletedInfo(), simInfoParameters);
                 });
 
                 thread.start();
             } else {
-                FastLogic fastLogic = new FastLogic(simInfo, update, this.paper, simCompletedInfo -> {
-                    setRunning(false);
-
-                    simInfoParameters.clear();
-                    simInfoParameters.println("Timer ms: " + simCompletedInfo.calculationTime());
-                    simInfoParameters.println("Travel: " + (simCompletedInfo.travelDistance() / 10));
+                boolean cacheable = this.paper.isBlank() && simInfo.getStrokeMode().isBinary()
+                        && simInfo.getPrecision() == Precision.EXACT;
+
+                CompletableFuture<Void> lookup = CompletableFuture
+                        .supplyAsync(() -> findCachedRender(simInfo), RenderPool.get())
+                        .thenAcceptAsync(cached -> {
+                            this.lookup = null;
+
+                            if (cached.render() != null) {
+                                applyCachedRender(cached, simInfo, simInfoParameters);
+                                setRunning(false);
+                            } else {
+                                startFastRender(simInfo, simInfoParameters, cached.key(), cacheable);
+                            }
+                        }, SwingUtilities::invokeLater);
+
+                lookup.whenComplete((ignored, throwable) -> {
+                    if (throwable != null && !lookup.isCancelled())
+                        setRunning(false);
                 });
 
-                Thread thread = new Thread(fastLogic::run);
-                thread.start();
+                this.lookup = lookup;
             }
         }
     }
 
+    private void startFastRender(SimInfo simInfo, SimInfoParameters simInfoParameters, String key, boolean cacheable) {
+        FastLogic fastLogic = new FastLogic(simInfo, progress, update, this.paper);
+        this.fastLogic = fastLogic;
+
+        fastLogic.getCompletion().whenComplete((simCompletedInfo, throwable) -> {
+            setRunning(false);
+
+            if (throwable != null)
+                return;
+
+            if (cacheable) {
+                this.renderCache.put(key, new CachedRender(paper.getWidth(), paper.getHeight(),
+                        paper.getPenPixels(), simCompletedInfo));
+            }
+
+            printCompletedInfo(simCompletedInfo, simInfoParameters);
+        });
+
+        fastLogic.run();
+    }
+
+    /**
+     * It draws the finished render of the same program from the render cache onto the canvas. Only renders which
+     * started on a blank canvas, don't blend pixels and use the exact kernel are cached, so the result is the same as
+     * rendering the program again. The cache is read on the render pool, a disk entry has to be unpacked and the
+     * program compiled. The pixels are drawn on the event dispatch thread afterwards, only if no render has been
+     * started and the canvas is still blank in the meantime
+     *
+     * @param simInfo The information about the simulation.
+     */
+    @Override
+    public void showCachedRenderLater(SimInfo simInfo, SimInfoParameters simInfoParameters) {
+        CompletableFuture.supplyAsync(() -> findCachedRender(simInfo), RenderPool.get())
+                .thenAcceptAsync(lookup -> {
+                    if (lookup.render() != null && !isRunning() && this.paper.isBlank())
+                        applyCachedRender(lookup, simInfo, simInfoParameters);
+                }, SwingUtilities::invokeLater);
+    }
+
+    /**
+     * It creates the key of the render and reads the cache, it runs on the render pool.
+     */
+    private CachedLookup findCachedRender(SimInfo simInfo) {
+        String key = createCacheKey(simInfo);
+        CachedRender cachedRender = this.renderCache.get(key);
+
+        if (cachedRender == null)
+            return new CachedLookup(key, null, 0);
+
+        long time = new SimGCodeLoader(simInfo.getSimValues().gCode()).getFullTime();
+        return new CachedLookup(key, cachedRender, time);
+    }
+
+    private void applyCachedRender(CachedLookup lookup, SimInfo simInfo, SimInfoParameters simInfoParameters) {
+        long time = lookup.time();
+
+        this.paper.setPenPixels(lookup.render().penPixels());
+        this.progress.complete((long) Math.ceil(time * simInfo.getStepFactor()));
+        this.update.run(new SimRenderState(time, time));
+        printCompletedInfo(lookup.render().completedInfo(), simInfoParameters);
+    }
+
+    private String createCacheKey(SimInfo simInfo) {
+        return RenderCache.createKey(simInfo.getSimValues(), simInfo.getStepFactor(), simInfo.getStrokeMode(),
+                simInfo.getSegmentLength(), this.paper.getWidth(), this.paper.getHeight());
+    }
+
+    private void printCompletedInfo(SimCompletedInfo simCompletedInfo, SimInfoParameters simInfoParameters) {
+        simInfoParameters.clear();
+        simInfoParameters.println("Timer ms: " + simCompletedInfo.calculationTime());
+        simInfoParameters.println("Travel: " + (simCompletedInfo.travelDistance() / 10));
+    }
+
     /**
-     * If the thread is running, set it to not running and set the current steps to 0.
+     * If the thread is running, set it to not running and set the current steps to 0. A running fast render gets
+     * cancelled, as well as a cache lookup which hasn't started it yet.
      */
     public synchronized void stop() {
         setRunning(false);
+        progress.finish();
+
+        if (lookup != null) {
+            lookup.cancel(false);
+            lookup = null;
+        }
+
+        if (fastLogic != null) {
+            fastLogic.cancel();
+            fastLogic = null;
+        }
+    }
+
+    /**
+     * The progress is written by the render threads and can be sampled at any rate by the views.
+     *
+     * @return The progress of the current render.
+     */
+    public RenderProgress getProgress() {
+        return progress;
     }
 
     /**
@@ -102,4 +218,12 @@ public class SimRenderer implements Renderer {
     public void resetCanvas() {
         this.paper.reset();
     }
+
+    /**
+     * @param key The key of the render.
+     * @param render The cached render, or null if the render isn't cached.
+     * @param time The native duration of its program.
+     */
+    private record CachedLookup(String key, CachedRender render, long time) {
+    }
 }
@@ -21,7 +21,7 @@ public class SimView extends JPanel implements Simulation {
     private final SimInfoParameters simInfoParameters;
     private final SimDataCollector dataCollector;
     private boolean running = false;
-    private int timestamp = 0;
+    private long timestamp = 0;
 
     public SimView(SimInfoParameters simInfoParameters, SimDataCollector dataCollector) {
         this.dataCollector = dataCollector;
@@ -60,6 +60,17 @@ public class SimView extends JPanel implements Simulation {
         );
     }
 
+    /**
+     * It shows the cached render of the program with the current accuracy, so a reopened program shows its drawing
+     * without rendering it again. The cache is read in the background, the drawing appears when it is loaded
+     */
+    public void showCachedRender() {
+        this.simMainView.getRenderer().showCachedRenderLater(
+                new SimInfo(this.dataCollector.collectValues(), this.simMonitor),
+                this.simInfoParameters
+        );
+    }
+
     /**
      * > Stop the simulation and reset the simulation monitor
      */
@@ -89,11 +100,11 @@ public class SimView extends JPanel implements Simulation {
     @Override
     public void resetCanvas() {
         this.simMainView.getMapPanel().getSimRenderer().resetCanvas();
-        this.simMainView.getMapPanel().repaint();
+        this.simMainView.getMapPanel().getMapLayout().repaint();
     }
 
     @Override
-    public int getTimestamp() {
+    public long getTimestamp() {
         return this.timestamp;
     }
 
@@ -102,6 +113,11 @@ public class SimView extends JPanel implements Simulation {
         return simMonitor.isFastMode();
     }
 
+    @Override
+    public RenderProgress getProgress() {
+        return this.simMainView.getMapPanel().getSimRenderer().getProgress();
+    }
+
     @Override
     public boolean isRunning() {
         return running;
@@ -17,7 +17,7 @@ public interface Simulation {
 
     void resetCanvas();
 
-    int getTimestamp();
+    long getTimestamp();
 
     boolean isRunning();
 
@@ -25,4 +25,6 @@ public interface Simulation {
 
     boolean isFastMode();
 
+    RenderProgress getProgress();
+
 }
@@ -0,0 +1,51 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim;
+
+public enum StrokeMode {
+    DOTS("Dots", "dots"),
+    LINES("Lines", "lines"),
+    SMOOTH_LINES("Smooth Lines", "smooth");
+
+    private final String displayName;
+    private final String option;
+
+    StrokeMode(String displayName, String option) {
+        this.displayName = displayName;
+        this.option = option;
+    }
+
+    /**
+     * @param option The name of the stroke on the command line, dots, lines or smooth.
+     * @return The stroke with the name.
+     */
+    public static StrokeMode fromOption(String option) {
+        for (StrokeMode strokeMode : values())
+            if (strokeMode.option.equals(option))
+                return strokeMode;
+
+        throw new IllegalArgumentException("Unknown stroke " + option);
+    }
+
+    /**
+     * @return True if consecutive samples are connected by a line.
+     */
+    public boolean isConnected() {
+        return this != DOTS;
+    }
+
+    /**
+     * @return True if every pixel is either untouched or has the color of the pencil, so no pixel is blended.
+     */
+    public boolean isBinary() {
+        return this != SMOOTH_LINES;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
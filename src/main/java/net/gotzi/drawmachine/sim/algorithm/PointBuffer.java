@@ -0,0 +1,116 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.algorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PointBuffer {
+
+    public static final int DEFAULT_CHUNK_SHIFT = 16;
+
+    private final int chunkShift;
+    private final int chunkSize;
+    private final List<double[]> xChunks = new ArrayList<>();
+    private final List<double[]> yChunks = new ArrayList<>();
+
+    private double[] currentX;
+    private double[] currentY;
+    private int size = 0;
+
+    public PointBuffer() {
+        this(DEFAULT_CHUNK_SHIFT);
+    }
+
+    /**
+     * @param chunkShift The chunk size as a power of two, every chunk holds 1 << chunkShift points.
+     */
+    public PointBuffer(int chunkShift) {
+        this.chunkShift = chunkShift;
+        this.chunkSize = 1 << chunkShift;
+    }
+
+    /**
+     * It appends a point to the last chunk and starts a new chunk if the last one is full, so appending never copies
+     * already stored points
+     *
+     * @param x The x coordinate of the point.
+     * @param y The y coordinate of the point.
+     */
+    public void add(double x, double y) {
+        int offset = size & (chunkSize - 1);
+
+        if (offset == 0) {
+            this.currentX = new double[chunkSize];
+            this.currentY = new double[chunkSize];
+            this.xChunks.add(currentX);
+            this.yChunks.add(currentY);
+        }
+
+        this.currentX[offset] = x;
+        this.currentY[offset] = y;
+        this.size++;
+    }
+
+    public double getX(int index) {
+        return xChunks.get(index >>> chunkShift)[index & (chunkSize - 1)];
+    }
+
+    public double getY(int index) {
+        return yChunks.get(index >>> chunkShift)[index & (chunkSize - 1)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * It walks over all points in the order they were added, chunk by chunk.
+     *
+     * @param consumer The consumer which receives every point.
+     */
+    public void forEach(PointConsumer consumer) {
+        int remaining = size;
+
+        for (int chunk = 0; remaining > 0; chunk++) {
+            double[] xs = xChunks.get(chunk);
+            double[] ys = yChunks.get(chunk);
+            int length = Math.min(remaining, chunkSize);
+
+            for (int i = 0; i < length; i++)
+                consumer.accept(xs[i], ys[i]);
+
+            remaining -= length;
+        }
+    }
+
+    /**
+     * It hands the stored arrays to the consumer chunk by chunk, so bulk operations can run over plain arrays.
+     *
+     * @param consumer The consumer which receives the arrays and the amount of used points in them.
+     */
+    public void forEachChunk(ChunkConsumer consumer) {
+        int remaining = size;
+
+        for (int chunk = 0; remaining > 0; chunk++) {
+            int length = Math.min(remaining, chunkSize);
+            consumer.accept(xChunks.get(chunk), yChunks.get(chunk), length);
+            remaining -= length;
+        }
+    }
+
+    public interface PointConsumer {
+        void accept(double x, double y);
+    }
+
+    public interface ChunkConsumer {
+        void accept(double[] xs, double[] ys, int length);
+    }
+}
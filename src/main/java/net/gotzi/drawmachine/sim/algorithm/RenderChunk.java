@@ -0,0 +1,119 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.algorithm;
+
+public class RenderChunk {
+
+    private final double[] xs;
+    private final double[] ys;
+    private long index;
+    private int size;
+    private int timestamps;
+    private double startX = Double.NaN;
+    private double startY = Double.NaN;
+
+    /**
+     * A chunk is a reusable batch of points of consecutive timestamps, it is filled by a math worker and emptied by a
+     * plotter.
+     *
+     * @param capacity The maximum amount of points of the chunk.
+     */
+    public RenderChunk(int capacity) {
+        this.xs = new double[capacity];
+        this.ys = new double[capacity];
+    }
+
+    /**
+     * Prepares the chunk for the next batch.
+     *
+     * @param index The index of the batch, batches with a higher index have later timestamps.
+     * @param size The amount of points of the batch.
+     */
+    public void reset(long index, int size) {
+        reset(index, size, size);
+    }
+
+    /**
+     * Prepares the chunk for the next batch, whose amount of points differs from the amount of timestamps it covers.
+     *
+     * @param index The index of the batch, batches with a higher index have later timestamps.
+     * @param size The amount of points of the batch.
+     * @param timestamps The amount of fixed timestamps the batch covers.
+     */
+    public void reset(long index, int size, int timestamps) {
+        this.index = index;
+        this.size = size;
+        this.timestamps = timestamps;
+        this.startX = Double.NaN;
+        this.startY = Double.NaN;
+    }
+
+    /**
+     * Sets the point of the timestamp before the first point of the chunk, so connected strokes can draw the line into
+     * the chunk without waiting for the chunk before.
+     */
+    public void setStart(double x, double y) {
+        this.startX = x;
+        this.startY = y;
+    }
+
+    /**
+     * @return The distance between the points of the chunk in timestamp order.
+     */
+    public double sumUpTravelDistance() {
+        double travelDistance = 0;
+
+        for (int i = 1; i < size; i++) {
+            double dx = xs[i] - xs[i - 1];
+            double dy = ys[i] - ys[i - 1];
+            travelDistance += Math.sqrt(dx * dx + dy * dy);
+        }
+
+        return travelDistance;
+    }
+
+    public double[] getXs() {
+        return xs;
+    }
+
+    public double[] getYs() {
+        return ys;
+    }
+
+    /**
+     * @return The x coordinate of the point before the chunk, or NaN if it wasn't calculated.
+     */
+    public double getStartX() {
+        return startX;
+    }
+
+    public double getStartY() {
+        return startY;
+    }
+
+    public long getIndex() {
+        return index;
+    }
+
+    /**
+     * @return The amount of fixed timestamps the chunk covers, it is the progress of the render the chunk stands for.
+     */
+    public int getTimestamps() {
+        return timestamps;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return xs.length;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
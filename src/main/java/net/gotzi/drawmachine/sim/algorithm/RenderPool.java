@@ -0,0 +1,48 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.algorithm;
+
+import net.gotzi.drawmachine.utils.Helper;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RenderPool {
+
+    private static final ForkJoinPool pool = new ForkJoinPool(Helper.processorAmount());
+
+    /**
+     * The pool is shared by all renders, so repeated renders run on already started worker threads.
+     *
+     * @return The shared render pool.
+     */
+    public static ForkJoinPool get() {
+        return pool;
+    }
+
+    /**
+     * The plotters wait for chunks most of the time, so they don't run on the render pool. Their threads are kept
+     * alive for a while and reused by the next render, renders which run at the same time get a plotter each
+     *
+     * @return The shared executor of the plotters, it is created with the first plotter.
+     */
+    public static ExecutorService getPlotters() {
+        return Plotters.executor;
+    }
+
+    private static class Plotters {
+
+        private static final AtomicInteger count = new AtomicInteger();
+
+        private static final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "Render-Plotter-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
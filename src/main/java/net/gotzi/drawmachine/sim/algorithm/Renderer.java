@@ -12,6 +12,8 @@ public interface Renderer {
 
     void render(SimInfo simInfo, SimInfoParameters simInfoParameters);
 
+    void showCachedRenderLater(SimInfo simInfo, SimInfoParameters simInfoParameters);
+
     void stop();
 
 }
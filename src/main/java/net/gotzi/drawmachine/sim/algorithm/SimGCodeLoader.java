@@ -9,9 +9,7 @@ import net.gotzi.drawmachine.sim.gcode.*;
 import net.gotzi.drawmachine.sim.gcode.snippet.*;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
 
 public class SimGCodeLoader {
 
@@ -23,94 +21,67 @@ public class SimGCodeLoader {
     private final long fullTime;
     private double currentTimestamp;
     private final List<GCodeSnippet> gCodeSnippets = new ArrayList<>();
+    private final SimGCodeTimeline timeline;
 
     public SimGCodeLoader(GCode gCode) {
         this.gCode = gCode;
         try {
-            this.compileGCode();
+            this.compileGCode(gCode.getInstructions());
         } catch (GCodeConstructError e) {
             throw new RuntimeException(e);
         }
 
-        this.fullTime = calculateTime();
+        this.timeline = new SimGCodeTimeline(gCodeSnippets);
+        this.fullTime = timeline.getDuration();
     }
 
-    private void compileGCode() throws GCodeConstructError {
-        String line;
-
-        for (int i = 0; i < gCode.source.length; i++) {
-            line = gCode.source[i];
-
-            String[] commands = line.split(" ");
-
-            if (line.contains("G54")) {
-                this.middleOffset = findValue(commands, Motor.M.toChar());
-                this.stepperAOffset = findValue(commands, Motor.A.toChar());
-                this.stepperBOffset = findValue(commands, Motor.B.toChar());
-            } else if (line.contains("G8")) {
-                List<GCodeLine> lineList = new ArrayList<>();
-                int j;
-                for (j = 0; j < 3 && !gCode.source[j+1+i].contains("G9"); j++) {
-                    GCodeLine gCodeLine = computeGCommand(gCode.source[j + 1 + i]
-                            .split(" ")[0], gCode.source[j + 1 + i], true);
-                    lineList.add(gCodeLine);
+    /**
+     * It turns the compiled instructions into the snippets of the timeline, the lines between G8 and G9 become one
+     * sequence and the snippets between G10 and G11 one repeat block.
+     */
+    private void compileGCode(List<GCodeInstruction> instructions) {
+        List<GCodeSnippet> snippets = gCodeSnippets;
+        List<GCodeLine> sequenceLines = null;
+        long sequenceDuration = 0;
+        long repeatCount = 0;
+
+        for (GCodeInstruction instruction : instructions) {
+            switch (instruction.opcode()) {
+                case OFFSET -> setOffset(instruction.motor(), instruction.degree());
+                case SEQUENCE_BEGIN -> {
+                    sequenceLines = new ArrayList<>(Motor.values().length);
+                    sequenceDuration = instruction.duration();
                 }
+                case SEQUENCE_END -> {
+                    snippets.add(new GCodeSequence(sequenceLines.toArray(new GCodeLine[0]), sequenceDuration));
+                    sequenceLines = null;
+                }
+                case REPEAT_BEGIN -> {
+                    snippets = new ArrayList<>();
+                    repeatCount = instruction.count();
+                }
+                case REPEAT_END -> {
+                    gCodeSnippets.add(new GCodeRepeat(snippets, repeatCount));
+                    snippets = gCodeSnippets;
+                }
+                default -> {
+                    GCodeLine gCodeLine = computeGCommand(instruction);
 
-                i+=j+1;
-
-                GCodeSequence sequence = new GCodeSequence(lineList.toArray(new GCodeLine[0]), line);
-                gCodeSnippets.add(sequence);
-            } else if (!line.equals("")) {
-                GCodeLine gCodeLine = computeGCommand(commands[0], line, false);
-
-                gCodeSnippets.add(gCodeLine);
-            }
-        }
-    }
-
-    private long calculateTime() {
-        String line;
-        long time = 0;
-
-        for (int i = 0; i < gCode.getSource().length; i++) {
-            line = gCode.getSource()[i];
-
-            if (line.contains("G8")) {
-                time += findLargestTimestamp(gCode.getSource(), i);
-            } else {
-                String[] commands = line.split(" ");
-                time += getTime(commands);
+                    if (sequenceLines != null)
+                        sequenceLines.add(gCodeLine);
+                    else
+                        snippets.add(gCodeLine);
+                }
             }
         }
-
-        return time;
     }
 
-    private int findLargestTimestamp(String[] source, int offset) {
-        int time = 0;
-        int new_time;
-
-        for (int i = offset; i < source.length; i++) {
-            String[] commands = source[i].split(" ");
-
-            if (time < (new_time = getTime(commands)))
-                time = new_time;
-
-            if (Arrays.stream(commands).anyMatch(cmd -> cmd.contains("G9")))
-                return time;
+    private void setOffset(Motor motor, double degree) {
+        switch (motor) {
+            case M -> this.middleOffset = degree;
+            case A -> this.stepperAOffset = degree;
+            case B -> this.stepperBOffset = degree;
         }
-
-        //TODO throw exception
-        return 0;
-    }
-
-    private int getTime(String[] commands) {
-         Optional<String> option=  Arrays.stream(commands).filter(cmd -> cmd.contains("D")).findAny();
-
-         if (option.isEmpty())
-             return 0;
-
-         return Integer.parseInt(option.get().replace("D", ""));
     }
 
     public boolean isFinished() {
@@ -118,47 +89,7 @@ public class SimGCodeLoader {
     }
 
     private double getAxisDegree(double timestamp, Motor motor) {
-        double time = 0;
-        double degree = 0;
-
-        for (GCodeSnippet snippet : gCodeSnippets) {
-            if (time + snippet.getDuration() >= timestamp) {
-                if (snippet instanceof GCodeSequence sequence) {
-                    Optional<GCodeLine> optional = Arrays.stream(sequence.getLines())
-                            .filter(line -> line.getMotor() == motor).findAny();
-
-                    if (optional.isPresent()) {
-                        if (time + optional.get().getDuration() >= timestamp) {
-                            time = timestamp;
-                            degree += optional.get().calculateDegree(timestamp);
-                        } else {
-                            time += optional.get().getDuration();
-                            degree += optional.get().getDegree();
-                        }
-                    }
-                } else if (snippet instanceof GCodeLine line) {
-                    time = timestamp;
-                    degree += line.calculateDegree(timestamp);
-                }
-            } else {
-                time += snippet.getDuration();
-
-                if (snippet instanceof GCodeSequence sequence) {
-                    Optional<GCodeLine> optional = Arrays.stream(sequence.getLines())
-                            .filter(line -> line.getMotor() == motor).findAny();
-
-                    if (optional.isPresent()) {
-                        degree += optional.get().getDegree();
-                    }
-                } else if (snippet instanceof GCodeLine line) {
-                    degree += line.getDegree();
-                }
-            }
-
-            degree %= 360;
-        }
-
-        return degree;
+        return timeline.getDegree(timestamp, motor);
     }
 
     public double getMiddleDegree(double timestamp) {
@@ -188,23 +119,12 @@ public class SimGCodeLoader {
         return fullTime;
     }
 
-    private int findValue(String[] commandSplit, char cmd) {
-        for (int i = 0; i < commandSplit.length; i++) {
-            if (commandSplit[i].charAt(0) == cmd)
-                return i;
-        }
-
-        return -1;
-    }
-
-    private GCodeLine computeGCommand(String g, String str, boolean inSequence) throws GCodeConstructError {
-        return switch (Integer.parseInt(g.substring(1))) {
-            case 0 -> new GCodeLineDefault(str, inSequence);
-            case 1 -> new GCodeLineExpo(str, inSequence);
-
-            default -> {
-                throw new GCodeConstructError();
-            }
+    private GCodeLine computeGCommand(GCodeInstruction instruction) {
+        return switch (instruction.opcode()) {
+            case MOVE_EXPO -> new GCodeLineExpo(instruction);
+            case MOVE_TRAPEZOID -> new GCodeLineTrapezoid(instruction);
+            case MOVE_S_CURVE -> new GCodeLineSCurve(instruction);
+            default -> new GCodeLineDefault(instruction);
         };
     }
 }
@@ -0,0 +1,208 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.algorithm;
+
+import net.gotzi.drawmachine.sim.gcode.Motor;
+import net.gotzi.drawmachine.sim.gcode.motion.MotionProfile;
+import net.gotzi.drawmachine.sim.gcode.snippet.GCodeLine;
+import net.gotzi.drawmachine.sim.gcode.snippet.GCodeRepeat;
+import net.gotzi.drawmachine.sim.gcode.snippet.GCodeSequence;
+import net.gotzi.drawmachine.sim.gcode.snippet.GCodeSnippet;
+
+import java.util.List;
+
+public class SimGCodeTimeline {
+
+    private final MotorTimeline[] motorTimelines;
+    private final long duration;
+
+    /**
+     * It lays the compiled snippets end to end and builds one timeline per motor, so the angle at any timestamp can be
+     * looked up with a binary search instead of walking every snippet
+     *
+     * @param gCodeSnippets The compiled snippets in program order.
+     */
+    public SimGCodeTimeline(List<GCodeSnippet> gCodeSnippets) {
+        this.motorTimelines = new MotorTimeline[Motor.values().length];
+        this.duration = build(gCodeSnippets, motorTimelines);
+    }
+
+    /**
+     * It fills one timeline per motor with the snippets. A repeat block becomes a single segment whose body has
+     * timelines of its own
+     *
+     * @return The sum of all snippet durations.
+     */
+    private static long build(List<GCodeSnippet> gCodeSnippets, MotorTimeline[] motorTimelines) {
+        Motor[] motors = Motor.values();
+
+        for (Motor motor : motors)
+            motorTimelines[motor.ordinal()] = new MotorTimeline(gCodeSnippets.size());
+
+        long start = 0;
+
+        for (GCodeSnippet snippet : gCodeSnippets) {
+            if (snippet instanceof GCodeSequence sequence) {
+                for (Motor motor : motors) {
+                    GCodeLine line = findLine(sequence, motor);
+
+                    if (line != null)
+                        motorTimelines[motor.ordinal()].add(start, line);
+                }
+            } else if (snippet instanceof GCodeLine line) {
+                motorTimelines[line.getMotor().ordinal()].add(start, line);
+            } else if (snippet instanceof GCodeRepeat repeat) {
+                addRepeat(start, repeat, motorTimelines);
+            }
+
+            start = Math.addExact(start, snippet.getDuration());
+        }
+
+        return start;
+    }
+
+    private static void addRepeat(long start, GCodeRepeat repeat, MotorTimeline[] motorTimelines) {
+        MotorTimeline[] bodyTimelines = new MotorTimeline[motorTimelines.length];
+        build(repeat.getSnippets(), bodyTimelines);
+
+        for (int i = 0; i < motorTimelines.length; i++) {
+            MotorTimeline body = bodyTimelines[i];
+
+            if (body.size == 0)
+                continue;
+
+            double delta = body.degree;
+            double degree = (repeat.getCount() * delta) % 360;
+            RepeatProfile profile = new RepeatProfile(body, repeat.getPeriod(), delta);
+
+            motorTimelines[i].add(start, repeat.getDuration(), degree, profile);
+        }
+    }
+
+    /**
+     * Returns the first line of the sequence that drives the given motor, or null if the motor rests in this sequence.
+     */
+    private static GCodeLine findLine(GCodeSequence sequence, Motor motor) {
+        for (GCodeLine line : sequence.getLines()) {
+            if (line != null && line.getMotor() == motor)
+                return line;
+        }
+
+        return null;
+    }
+
+    /**
+     * The function returns the angle of the motor at the given timestamp, without any G54 offset
+     *
+     * @param timestamp The timestamp of the program.
+     * @param motor The motor whose angle is requested.
+     * @return The angle of the motor in degrees.
+     */
+    public double getDegree(double timestamp, Motor motor) {
+        return this.motorTimelines[motor.ordinal()].getDegree(timestamp);
+    }
+
+    /**
+     * @return The sum of all snippet durations.
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    private static class MotorTimeline {
+
+        private final double[] starts;
+        private final double[] ends;
+        private final double[] startDegrees;
+        private final double[] endDegrees;
+        private final MotionProfile[] profiles;
+        private int size = 0;
+        private double degree = 0;
+
+        private MotorTimeline(int capacity) {
+            this.starts = new double[capacity];
+            this.ends = new double[capacity];
+            this.startDegrees = new double[capacity];
+            this.endDegrees = new double[capacity];
+            this.profiles = new MotionProfile[capacity];
+        }
+
+        /**
+         * It appends the line, its start and end angle are reduced to one turn once here, so the lookup doesn't
+         * depend on the lines before it.
+         */
+        private void add(long start, GCodeLine line) {
+            add(start, line.getDuration(), line.getDegree(), line.getProfile());
+        }
+
+        private void add(long start, long duration, double lineDegree, MotionProfile profile) {
+            double endDegree = (degree + lineDegree) % 360;
+
+            this.starts[size] = start;
+            this.ends[size] = start + duration;
+            this.startDegrees[size] = degree;
+            this.endDegrees[size] = endDegree;
+            this.profiles[size] = profile;
+            this.size++;
+
+            this.degree = endDegree;
+        }
+
+        /**
+         * It looks up the last segment that started at or before the timestamp. A running segment evaluates its
+         * profile at the local time, a completed one returns its precomputed end angle.
+         */
+        private double getDegree(double timestamp) {
+            int index = findSegment(timestamp);
+
+            if (index < 0)
+                return 0;
+
+            if (timestamp <= ends[index])
+                return (startDegrees[index] + profiles[index].getDegree(timestamp - starts[index])) % 360;
+
+            return endDegrees[index];
+        }
+
+        private int findSegment(double timestamp) {
+            int low = 0;
+            int high = size - 1;
+
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+
+                if (starts[mid] <= timestamp)
+                    low = mid + 1;
+                else
+                    high = mid - 1;
+            }
+
+            return high;
+        }
+    }
+
+    /**
+     * The profile of a repeat block for one motor. The body is only laid out once, a lookup finds the iteration by
+     * division and adds the angle the motor has turned in all iterations before it.
+     *
+     * @param body The timeline of the motor in one run of the body.
+     * @param period The duration of one run of the body.
+     * @param delta The angle the motor turns in one run of the body, reduced to one turn.
+     */
+    private record RepeatProfile(MotorTimeline body, double period, double delta) implements MotionProfile {
+
+        @Override
+        public double getDegree(double time) {
+            if (period == 0)
+                return 0;
+
+            double iteration = Math.floor(time / period);
+            double local = time - iteration * period;
+
+            return (iteration * delta) % 360 + body.getDegree(local);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.algorithm;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class TravelDistance {
+
+    private record Segment(double firstX, double firstY, double lastX, double lastY, double travelDistance) {
+    }
+
+    private final Map<Long, Segment> pending = new HashMap<>();
+
+    private long next = 0;
+    private double travelDistance = 0;
+    private double lastX;
+    private double lastY;
+
+    /**
+     * It adds the travel distance of a chunk. The chunks can arrive in any order, a chunk is only kept until all
+     * chunks before it have arrived, so the memory only grows with the amount of chunks in flight
+     *
+     * @param chunk The plotted chunk, it can be reused after this call.
+     */
+    public void add(RenderChunk chunk) {
+        if (chunk.isEmpty())
+            return;
+
+        int last = chunk.size() - 1;
+        Segment segment = new Segment(chunk.getXs()[0], chunk.getYs()[0],
+                chunk.getXs()[last], chunk.getYs()[last], chunk.sumUpTravelDistance());
+
+        synchronized (this) {
+            pending.put(chunk.getIndex(), segment);
+
+            while ((segment = pending.remove(next)) != null) {
+                if (next > 0) {
+                    double dx = segment.firstX - lastX;
+                    double dy = segment.firstY - lastY;
+                    travelDistance += Math.sqrt(dx * dx + dy * dy);
+                }
+
+                travelDistance += segment.travelDistance;
+                lastX = segment.lastX;
+                lastY = segment.lastY;
+                next++;
+            }
+        }
+    }
+
+    /**
+     * @return The travel distance of all chunks which have arrived without a gap.
+     */
+    public synchronized double getTravelDistance() {
+        return travelDistance;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.algorithm.logic;
+
+import net.gotzi.drawmachine.sim.SimInfo;
+import net.gotzi.drawmachine.sim.algorithm.SimGCodeLoader;
+
+public class AdaptiveSampler {
+
+    /**
+     * How much finer than the fixed step of the simulation accuracy a step can get.
+     */
+    public static final int MAX_SUBDIVISION = 16;
+
+    /**
+     * How much coarser than the fixed step of the simulation accuracy a step can get, it keeps fast periodic motions
+     * from being skipped.
+     */
+    public static final int MAX_COARSENING = 64;
+
+    /**
+     * The steps aim a bit below the segment length, so only few segments are too long and have to be calculated again.
+     */
+    private static final double SAFETY = 0.8;
+
+    private final MathLogic mathLogic;
+    private final SimGCodeLoader simGCodeLoader;
+    private final double segmentLength;
+    private final double minStep;
+    private final double maxStep;
+
+    private final double[] x = new double[1];
+    private final double[] y = new double[1];
+
+    private double timestamp;
+    private double currentX;
+    private double currentY;
+    private double step;
+    private long evaluations = 0;
+
+    /**
+     * The sampler walks through the timestamps with a step which follows the velocity of the pen, so every segment
+     * between two samples is about the segment length long. Slow parts of the drawing get fewer samples, fast sweeps
+     * are subdivided
+     *
+     * @param mathLogic The kernel which calculates the pencil points.
+     * @param simGCodeLoader The loader which resolves the motor angles.
+     * @param simInfo The information about the simulation, its step factor bounds the step.
+     */
+    public AdaptiveSampler(MathLogic mathLogic, SimGCodeLoader simGCodeLoader, SimInfo simInfo) {
+        double fixedStep = 1.0 / simInfo.getStepFactor();
+
+        this.mathLogic = mathLogic;
+        this.simGCodeLoader = simGCodeLoader;
+        this.segmentLength = simInfo.getSegmentLength();
+        this.minStep = fixedStep / MAX_SUBDIVISION;
+        this.maxStep = fixedStep * MAX_COARSENING;
+        this.step = fixedStep;
+    }
+
+    /**
+     * It moves the sampler to the timestamp and calculates its point. The step is kept, so a sampler which continues
+     * with the next range doesn't have to find it again.
+     *
+     * @param timestamp The first timestamp of the range.
+     */
+    public void start(double timestamp) {
+        this.timestamp = timestamp;
+        calculate(timestamp);
+        this.currentX = x[0];
+        this.currentY = y[0];
+    }
+
+    /**
+     * It advances the sampler by one segment, but not past the stop. If the segment is longer than the segment
+     * length and the step is above the minimum step, the step is shortened and the segment is calculated again.
+     * The next step is scaled by the ratio of the segment length to the length of the accepted segment, it at most
+     * doubles
+     *
+     * @param stop The last timestamp of the range, it is always sampled.
+     * @return If the sampler has advanced, false if it has already reached the stop.
+     */
+    public boolean next(double stop) {
+        if (timestamp >= stop)
+            return false;
+
+        while (true) {
+            boolean last = timestamp + step >= stop;
+            double current = last ? stop - timestamp : step;
+
+            calculate(last ? stop : timestamp + current);
+
+            double dx = x[0] - currentX;
+            double dy = y[0] - currentY;
+            double distance = Math.sqrt(dx * dx + dy * dy);
+
+            if (distance > segmentLength && current > minStep) {
+                this.step = Math.max(minStep, current * SAFETY * segmentLength / distance);
+                continue;
+            }
+
+            if (!last) {
+                double scale = distance > 0 ? Math.min(2, SAFETY * segmentLength / distance) : 2;
+                this.step = Math.max(minStep, Math.min(maxStep, current * scale));
+            }
+
+            this.timestamp = last ? stop : timestamp + current;
+            this.currentX = x[0];
+            this.currentY = y[0];
+            return true;
+        }
+    }
+
+    private void calculate(double timestamp) {
+        this.mathLogic.calculatePencilPoint(timestamp, simGCodeLoader, x, y, 0);
+        this.evaluations++;
+    }
+
+    /**
+     * @param timestamps The length of the range in fixed steps of the simulation accuracy.
+     * @return The most points the sampler can create for a range, including its first and last timestamp and one
+     * point of headroom for rounding.
+     */
+    public static int maxPoints(int timestamps) {
+        return timestamps * MAX_SUBDIVISION + 2;
+    }
+
+    public double getTimestamp() {
+        return timestamp;
+    }
+
+    public double getX() {
+        return currentX;
+    }
+
+    public double getY() {
+        return currentY;
+    }
+
+    /**
+     * @return The amount of calculated pencil points, including the rejected segments.
+     */
+    public long getEvaluations() {
+        return evaluations;
+    }
+}
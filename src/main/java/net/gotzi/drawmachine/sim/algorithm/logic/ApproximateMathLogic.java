@@ -0,0 +1,104 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.algorithm.logic;
+
+import net.gotzi.drawmachine.sim.SimInfo;
+import net.gotzi.drawmachine.sim.algorithm.SimGCodeLoader;
+import net.gotzi.drawmachine.utils.FastTrig;
+
+public class ApproximateMathLogic extends MathLogic {
+
+    /**
+     * The kernel replaces the trigonometric functions with the tables of {@link FastTrig}, it is meant for previews
+     * where a fraction of a pixel doesn't matter.
+     *
+     * @param simInfo The information about the simulation.
+     */
+    public ApproximateMathLogic(SimInfo simInfo) {
+        super(simInfo);
+    }
+
+    @Override
+    protected double sin(double radiant) {
+        return FastTrig.sin(radiant);
+    }
+
+    @Override
+    protected double cos(double radiant) {
+        return FastTrig.cos(radiant);
+    }
+
+    @Override
+    protected double asin(double value) {
+        return FastTrig.asin(value);
+    }
+
+    @Override
+    protected double atan(double value) {
+        return FastTrig.atan(value);
+    }
+
+    /**
+     * It measures how far the approximated pencil points are from the exact ones, at evenly spread timestamps of the
+     * program. Timestamps where only one of the kernels finds a point are counted as misses.
+     *
+     * @param simInfo The information about the simulation.
+     * @param simGCodeLoader The loader which resolves the motor angles.
+     * @param samples The amount of compared timestamps.
+     * @return The error of the approximation in canvas pixels.
+     */
+    public static ApproximationError measureError(SimInfo simInfo, SimGCodeLoader simGCodeLoader, int samples) {
+        MathLogic exact = new MathLogic(simInfo);
+        MathLogic approximate = new ApproximateMathLogic(simInfo);
+        double fullTime = simGCodeLoader.getFullTime();
+
+        double[] exactX = new double[1];
+        double[] exactY = new double[1];
+        double[] approximateX = new double[1];
+        double[] approximateY = new double[1];
+
+        double maxError = 0;
+        double sumError = 0;
+        int compared = 0;
+        int misses = 0;
+
+        for (int i = 0; i < samples; i++) {
+            double timestamp = fullTime * i / samples;
+
+            exact.calculatePencilPoint(timestamp, simGCodeLoader, exactX, exactY, 0);
+            approximate.calculatePencilPoint(timestamp, simGCodeLoader, approximateX, approximateY, 0);
+
+            boolean exactMissing = Double.isNaN(exactX[0]) || Double.isNaN(exactY[0]);
+            boolean approximateMissing = Double.isNaN(approximateX[0]) || Double.isNaN(approximateY[0]);
+
+            if (exactMissing || approximateMissing) {
+                if (exactMissing != approximateMissing)
+                    misses++;
+                continue;
+            }
+
+            double dx = exactX[0] - approximateX[0];
+            double dy = exactY[0] - approximateY[0];
+            double error = Math.sqrt(dx * dx + dy * dy);
+
+            maxError = Math.max(maxError, error);
+            sumError += error;
+            compared++;
+        }
+
+        return new ApproximationError(maxError, compared == 0 ? 0 : sumError / compared, misses);
+    }
+
+    /**
+     * The error of the approximate kernel against the exact one.
+     *
+     * @param maxError The largest distance in pixels.
+     * @param meanError The mean distance in pixels.
+     * @param misses The amount of timestamps where only one kernel has found a point.
+     */
+    public record ApproximationError(double maxError, double meanError, int misses) {
+    }
+}
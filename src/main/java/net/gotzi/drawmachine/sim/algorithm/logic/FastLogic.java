@@ -5,154 +5,495 @@
 
 package net.gotzi.drawmachine.sim.algorithm.logic;
 
-import net.gotzi.drawmachine.DrawMachineSim;
 import net.gotzi.drawmachine.api.Action;
 import net.gotzi.drawmachine.api.sim.SimCompletedInfo;
-import net.gotzi.drawmachine.api.sim.SimPoint;
 import net.gotzi.drawmachine.api.sim.SimRenderState;
-import net.gotzi.drawmachine.error.PencilOutOfCanvas;
 import net.gotzi.drawmachine.sim.SimInfo;
 import net.gotzi.drawmachine.sim.Canvas;
-import net.gotzi.drawmachine.sim.SimRenderer;
+import net.gotzi.drawmachine.sim.RenderProgress;
+import net.gotzi.drawmachine.sim.StrokeMode;
+import net.gotzi.drawmachine.sim.algorithm.PointBuffer;
+import net.gotzi.drawmachine.sim.algorithm.RenderChunk;
+import net.gotzi.drawmachine.sim.algorithm.RenderPool;
 import net.gotzi.drawmachine.sim.algorithm.SimGCodeLoader;
+import net.gotzi.drawmachine.sim.algorithm.TravelDistance;
+import net.gotzi.drawmachine.sim.trace.PointTraceWriter;
 import net.gotzi.drawmachine.utils.BenchmarkTimer;
-import net.gotzi.drawmachine.utils.Helper;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class FastLogic extends Logic {
 
+    private static final int TIMESTAMPS_PER_TASK = 1 << PointBuffer.DEFAULT_CHUNK_SHIFT;
+
+    /**
+     * The amount of points of a chunk in the pipeline of the full pass.
+     */
+    private static final int CHUNK_SIZE = 1 << 13;
+
+    /**
+     * The amount of chunks per math worker, together they bound the memory of a render.
+     */
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    /**
+     * The strides of the preview passes, every stride divides the one before.
+     */
+    private static final int[] PREVIEW_STRIDES = {1024, 32};
+
+    /**
+     * The amount of fixed timestamps of a batch of adaptive steps, its points fit into a chunk even if every step is
+     * subdivided.
+     */
+    private static final int ADAPTIVE_BATCH_SIZE = CHUNK_SIZE / AdaptiveSampler.MAX_SUBDIVISION;
+
+    private static final RenderChunk END_OF_STREAM = new RenderChunk(0);
+
     private final SimInfo simInfo;
     private final Action<SimRenderState> update;
+    private final RenderProgress progress;
     private final Canvas paper;
-    private final Action<SimCompletedInfo> finishedAction;
-    private final List<SimPoint[]> simPoints;
+    private final StrokeMode strokeMode;
     private final SimGCodeLoader simGCodeLoader;
-    private boolean finished = false;
+    private final CompletableFuture<SimCompletedInfo> completion;
+    private final AtomicBoolean cancelled;
+    private final Set<Thread> workerThreads = new HashSet<>();
+    private PointTraceWriter trace;
 
-    public FastLogic(SimInfo simInfo, Action<SimRenderState> update, Canvas paper, Action<SimCompletedInfo> finishedAction) {
+    public FastLogic(SimInfo simInfo, RenderProgress progress, Action<SimRenderState> update, Canvas paper) {
         this.simInfo = simInfo;
+        this.progress = progress;
         this.update = update;
         this.paper = paper;
-        this.finishedAction = finishedAction;
-        this.simPoints = new ArrayList<>();
+        this.strokeMode = simInfo.getStrokeMode();
+        this.completion = new CompletableFuture<>();
+        this.cancelled = new AtomicBoolean(false);
 
         this.simGCodeLoader = new SimGCodeLoader(simInfo.getSimValues().gCode());
     }
 
     @Override
     public boolean isFinished(int step) {
-        return this.finished;
+        return this.completion.isDone();
     }
 
     /**
-     * > This function is called by each thread to add its results to the global array of results
+     * It calculates the timestamps of the range which are a multiple of the stride, but not of the stride of the pass
+     * before, and draws them right away. The points are not kept, they only show a preview of the drawing. For
+     * connected strokes only single pixels are set, the lines between the points are drawn by the full pass. The
+     * marks of smooth lines are temporary, the full pass removes them before it draws
      *
-     * @param threadSimPoint The SimPoint array that the thread is trying to add to the simPoints array.
+     * @param start The first timestamp of the range, a multiple of the stride of the first pass.
+     * @param stop The end of the range (exclusive).
+     * @param stride The stride of this pass.
+     * @param previousStride The stride of the pass before, or 0 for the first pass.
      */
-    private void collect(SimPoint[] threadSimPoint) {
-        synchronized (simPoints) {
-            this.simPoints.add(threadSimPoint);
+    private void calculatePreview(MathLogic mathLogic, long start, long stop, int stride, int previousStride,
+                                  double stepFactor) {
+        int chunkShift = Math.max(6, PointBuffer.DEFAULT_CHUNK_SHIFT - Integer.numberOfTrailingZeros(stride));
+        PointBuffer points = new PointBuffer(chunkShift);
+        double[] x = new double[1];
+        double[] y = new double[1];
+
+        for (long timestamp = start; timestamp < stop && !cancelled.get(); timestamp += stride) {
+            if (previousStride != 0 && timestamp % previousStride == 0)
+                continue;
+
+            mathLogic.calculatePencilPoint((double)timestamp/stepFactor, simGCodeLoader, x, y, 0);
+            points.add(x[0], y[0]);
         }
+
+        if (strokeMode == StrokeMode.SMOOTH_LINES)
+            points.forEachChunk(this.paper::setTemporaryMarks);
+        else if (strokeMode.isConnected())
+            points.forEachChunk(this.paper::setMarks);
+        else
+            this.paper.setPoints(points);
     }
 
     /**
-     * "If there is only one thread left alive, then return true, otherwise return false."
+     * It runs one preview pass over all timestamps as small tasks on the shared render pool.
      *
-     * The function is synchronized because it is called from multiple threads
-     *
-     * @param mathThreads An array of threads that are running the math operations.
-     * @return The number of threads that are still alive.
+     * @return The future which is completed when all tasks of the pass are done.
      */
-    private synchronized boolean checkFinished(Thread[] mathThreads) {
-        return Arrays.stream(mathThreads).filter(Thread::isAlive).count() <= 1;
+    private CompletableFuture<Void> runPreview(MathLogic mathLogic, long timestamps, int pass, double stepFactor) {
+        if (cancelled.get())
+            return CompletableFuture.completedFuture(null);
+
+        int stride = PREVIEW_STRIDES[pass];
+        int previousStride = pass == 0 ? 0 : PREVIEW_STRIDES[pass - 1];
+        int tasks = (int) ((timestamps + TIMESTAMPS_PER_TASK - 1) / TIMESTAMPS_PER_TASK);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks];
+
+        for (int i = 0; i < tasks; i++) {
+            long start = (long) i * TIMESTAMPS_PER_TASK;
+            long stop = Math.min(timestamps, start + TIMESTAMPS_PER_TASK);
+
+            futures[i] = CompletableFuture.runAsync(
+                    () -> calculatePreview(mathLogic, start, stop, stride, previousStride, stepFactor), RenderPool.get());
+        }
+
+        return CompletableFuture.allOf(futures);
     }
 
     /**
-     * It draws all the points in the simulation
+     * A math worker takes the next batch of timestamps, fills a free chunk with their points and hands it to the
+     * plotter, until all batches are taken. It waits if all chunks are in use, so the workers can't run ahead of the
+     * plotter. A cancelled render interrupts the worker while it waits
      */
-    private synchronized void drawPoints() {
-        simPoints.forEach(simPoints -> {
-            for (SimPoint point : simPoints) {
-                try {
-                    if (point != null)
-                        this.paper.setPoint((int) point.x(), (int) point.y());
-                } catch (PencilOutOfCanvas ex) {
-                    ex.showErrorInfo(DrawMachineSim.getInstance().getWindow(), "Pencil out of Canvas");
+    private void produceChunks(MathLogic mathLogic, long timestamps, AtomicLong nextBatch,
+                               BlockingQueue<RenderChunk> free, BlockingQueue<RenderChunk> filled, double stepFactor) {
+        double[] x = new double[1];
+        double[] y = new double[1];
+        long batch;
+
+        try {
+            while (!cancelled.get() && (batch = nextBatch.getAndIncrement()) * CHUNK_SIZE < timestamps) {
+                long start = batch * CHUNK_SIZE;
+                int size = (int) Math.min(CHUNK_SIZE, timestamps - start);
+
+                RenderChunk chunk = take(free);
+                chunk.reset(batch, size);
+
+                mathLogic.calculatePencilPoints(start, size, stepFactor, simGCodeLoader, chunk.getXs(), chunk.getYs());
+
+                if (strokeMode.isConnected() && start > 0) {
+                    mathLogic.calculatePencilPoint((double)(start - 1)/stepFactor, simGCodeLoader, x, y, 0);
+                    chunk.setStart(x[0], y[0]);
                 }
+
+                put(filled, chunk);
             }
-        });
+        } catch (InterruptedException e) {
+            if (!cancelled.get())
+                throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * A math worker for adaptive steps takes the next batch of fixed timestamps and samples its time range with an
+     * {@link AdaptiveSampler}. Both the first and the last timestamp of the range are sampled, so the chunks of
+     * connected strokes join without knowing the point before them
+     */
+    private void produceAdaptiveChunks(MathLogic mathLogic, long timestamps, double nativeTime, AtomicLong nextBatch,
+                                       BlockingQueue<RenderChunk> free, BlockingQueue<RenderChunk> filled,
+                                       double stepFactor) {
+        AdaptiveSampler sampler = new AdaptiveSampler(mathLogic, simGCodeLoader, simInfo);
+        long batch;
+
+        try {
+            while (!cancelled.get() && (batch = nextBatch.getAndIncrement()) * ADAPTIVE_BATCH_SIZE < timestamps) {
+                long start = batch * ADAPTIVE_BATCH_SIZE;
+                long stop = Math.min(timestamps, start + ADAPTIVE_BATCH_SIZE);
+                double stopTimestamp = Math.min(nativeTime, (double)stop/stepFactor);
+
+                RenderChunk chunk = take(free);
+                double[] xs = chunk.getXs();
+                double[] ys = chunk.getYs();
+                int size = 0;
+
+                sampler.start((double)start/stepFactor);
+
+                do {
+                    xs[size] = sampler.getX();
+                    ys[size] = sampler.getY();
+                    size++;
+                } while (size < chunk.capacity() && sampler.next(stopTimestamp));
+
+                chunk.reset(batch, size, (int) (stop - start));
+                put(filled, chunk);
+            }
+        } catch (InterruptedException e) {
+            if (!cancelled.get())
+                throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * It runs a math worker on the current thread. While the worker runs, a cancel interrupts the thread, afterwards
+     * the interrupt is cleared, so it doesn't reach the next task of the pool
+     */
+    private void runWorker(Runnable worker) {
+        Thread thread = Thread.currentThread();
+
+        synchronized (workerThreads) {
+            workerThreads.add(thread);
+        }
+
+        try {
+            worker.run();
+        } finally {
+            synchronized (workerThreads) {
+                workerThreads.remove(thread);
+            }
+
+            if (cancelled.get())
+                Thread.interrupted();
+        }
+    }
+
+    /**
+     * It cancels the render and interrupts the math workers which are waiting for a chunk.
+     */
+    private void cancelWorkers() {
+        this.cancelled.set(true);
+
+        synchronized (workerThreads) {
+            for (Thread thread : workerThreads)
+                thread.interrupt();
+        }
+    }
+
+    /**
+     * It takes an element of the queue. While it waits, the render pool may start another thread, so a plotter which
+     * falls behind doesn't block other users of the pool
+     */
+    private static <E> E take(BlockingQueue<E> queue) throws InterruptedException {
+        QueueTaker<E> taker = new QueueTaker<>(queue);
+        ForkJoinPool.managedBlock(taker);
+        return taker.element;
+    }
+
+    /**
+     * It puts an element into the queue, like {@link #take(BlockingQueue)} the render pool may start another thread
+     * while it waits.
+     */
+    private static <E> void put(BlockingQueue<E> queue, E element) throws InterruptedException {
+        ForkJoinPool.managedBlock(new QueuePutter<>(queue, element));
     }
 
-    protected double sumUpTravelDistance(List<SimPoint[]> simPointsArrayCollection) {
-        SimPoint last = null;
-        double travelDistance = 0;
+    private static class QueueTaker<E> implements ForkJoinPool.ManagedBlocker {
+        private final BlockingQueue<E> queue;
+        private E element;
 
-        for (SimPoint[] simPointArray : simPointsArrayCollection) {
-            for (SimPoint point : simPointArray) {
-                if (last == null) {
-                    last = point;
-                    continue;
+        private QueueTaker(BlockingQueue<E> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            if (element == null)
+                element = queue.take();
+
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return element != null || (element = queue.poll()) != null;
+        }
+    }
+
+    private static class QueuePutter<E> implements ForkJoinPool.ManagedBlocker {
+        private final BlockingQueue<E> queue;
+        private final E element;
+        private boolean done;
+
+        private QueuePutter(BlockingQueue<E> queue, E element) {
+            this.queue = queue;
+            this.element = element;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            if (!done) {
+                queue.put(element);
+                done = true;
+            }
+
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return done || (done = queue.offer(element));
+        }
+    }
+
+    /**
+     * The plotter draws the filled chunks as they arrive and adds up their travel distance, then the chunks are free
+     * for the math workers again. It stops at the end of the stream. If the trace can't be written, the render is
+     * cancelled, but the plotter keeps taking chunks until the workers have stopped.
+     */
+    private void plotChunks(BlockingQueue<RenderChunk> free, BlockingQueue<RenderChunk> filled,
+                            TravelDistance travelDistance) {
+        IOException traceError = null;
+
+        try {
+            RenderChunk chunk;
+
+            while ((chunk = filled.take()) != END_OF_STREAM) {
+                if (strokeMode.isConnected()) {
+                    this.paper.setLines(chunk.getXs(), chunk.getYs(), chunk.size(), chunk.getStartX(),
+                            chunk.getStartY(), strokeMode == StrokeMode.SMOOTH_LINES);
+                } else {
+                    this.paper.setPoints(chunk.getXs(), chunk.getYs(), chunk.size());
+                }
+                travelDistance.add(chunk);
+
+                if (trace != null && traceError == null) {
+                    try {
+                        trace.add(chunk);
+                    } catch (IOException e) {
+                        traceError = e;
+                        cancelWorkers();
+                    }
                 }
 
-                travelDistance += distance(last, point);
+                this.progress.add(chunk.getTimestamps());
+
+                free.put(chunk);
             }
+        } catch (InterruptedException e) {
+            throw new CompletionException(e);
         }
 
-        return travelDistance;
+        if (traceError != null)
+            throw new UncheckedIOException(traceError);
     }
 
     /**
-     * It creates a bunch of threads, each of which calculates a bunch of points, and then when all the threads are done,
-     * it draws the points and calls the finishedAction
+     * It calculates every timestamp in a bounded pipeline. The math workers run on the render pool and the plotter on
+     * a shared plotter thread, they only share a fixed amount of chunks, so the memory doesn't grow with the step count. With
+     * a segment length the workers sample with adaptive steps instead of every timestamp. If the plotter fails, the
+     * render is cancelled, so the workers stop instead of waiting for chunks which never come back.
+     *
+     * @return The future of the travel distance, it is completed when the last chunk is plotted, or exceptionally as
+     * soon as the plotter fails.
+     */
+    private CompletableFuture<Double> runFullPass(MathLogic mathLogic, long timestamps, double nativeTime,
+                                                  double stepFactor) {
+        this.paper.clearTemporaryMarks();
+
+        if (cancelled.get())
+            return CompletableFuture.completedFuture(0.0);
+
+        int workers = RenderPool.get().getParallelism();
+        int chunks = workers * CHUNKS_PER_WORKER;
+        boolean adaptive = simInfo.isAdaptive();
+        int capacity = adaptive ? AdaptiveSampler.maxPoints(ADAPTIVE_BATCH_SIZE) : CHUNK_SIZE;
+
+        BlockingQueue<RenderChunk> free = new ArrayBlockingQueue<>(chunks);
+        BlockingQueue<RenderChunk> filled = new ArrayBlockingQueue<>(chunks + 1);
+        TravelDistance travelDistance = new TravelDistance();
+        AtomicLong nextBatch = new AtomicLong();
+
+        for (int i = 0; i < chunks; i++)
+            free.add(new RenderChunk(capacity));
+
+        CompletableFuture<Void> plotter = CompletableFuture.runAsync(
+                () -> plotChunks(free, filled, travelDistance),
+                RenderPool.getPlotters());
+
+        CompletableFuture<?>[] producers = new CompletableFuture<?>[workers];
+
+        for (int i = 0; i < workers; i++) {
+            Runnable producer = adaptive
+                    ? () -> produceAdaptiveChunks(mathLogic, timestamps, nativeTime, nextBatch, free, filled, stepFactor)
+                    : () -> produceChunks(mathLogic, timestamps, nextBatch, free, filled, stepFactor);
+
+            producers[i] = CompletableFuture.runAsync(() -> runWorker(producer), RenderPool.get());
+        }
+
+        CompletableFuture<Double> result = new CompletableFuture<>();
+
+        plotter.whenComplete((ignored, throwable) -> {
+            if (throwable != null) {
+                cancelWorkers();
+                result.completeExceptionally(throwable);
+            }
+        });
+
+        CompletableFuture.allOf(producers).whenComplete((ignored, throwable) -> filled.add(END_OF_STREAM));
+
+        CompletableFuture.allOf(producers)
+                .thenCombine(plotter, (ignored, ignored2) -> travelDistance.getTravelDistance())
+                .whenComplete((travel, throwable) -> {
+                    if (throwable != null)
+                        result.completeExceptionally(throwable);
+                    else
+                        result.complete(travel);
+                });
+
+        return result;
+    }
+
+    /**
+     * It shows a coarse preview of the whole drawing in passes of decreasing strides first, then every timestamp is
+     * calculated and plotted as it streams out of the math workers. When the render is done, the future returned by
+     * {@link #getCompletion()} is completed
      */
     @Override
-    public synchronized void run() {
+    public void run() {
         double stepFactor = this.simInfo.getStepFactor();
         long nativeTime = simGCodeLoader.getFullTime();
         double time = (double)nativeTime * stepFactor;
 
-        MathLogic mathLogic = new MathLogic(this.simInfo);
-        Thread[] mathThreads = new Thread[Helper.processorAmount() + 1];
-
-        Action<Long> finished = renderTime -> {
-            finished();
-            synchronized (simPoints) {
-                drawPoints();
-
-                SimCompletedInfo completedInfo = new SimCompletedInfo(renderTime, sumUpTravelDistance(simPoints));
-                finishedAction.run(completedInfo);
-                this.update.run(new SimRenderState((int) nativeTime, (int) nativeTime));
-            }
-        };
+        MathLogic mathLogic = MathLogic.create(this.simInfo);
 
         BenchmarkTimer benchmarkTimer = new BenchmarkTimer();
         benchmarkTimer.start();
 
-        int timestampsPerThread = (int) (time/mathThreads.length);
-        for (int i = 0; i < mathThreads.length; i++) {
-            int start = i*timestampsPerThread;
-            int stop = (int) Math.min(start + timestampsPerThread, time);
+        long timestamps = (long) Math.ceil(time);
+        this.progress.start(timestamps);
+        this.update.run(new SimRenderState(0, nativeTime));
 
-            mathThreads[i] = new Thread(() -> {
-                SimPoint[] threadSimPoints = new SimPoint[timestampsPerThread];
+        CompletableFuture<Void> previews = CompletableFuture.completedFuture(null);
 
-                for (int timestamp = start; timestamp < stop && !Thread.currentThread().isInterrupted(); timestamp++) {
-                    threadSimPoints[timestamp - start] = mathLogic.calculatePencilPoint((double)timestamp/stepFactor, simGCodeLoader);
-                }
-
-                collect(threadSimPoints);
-                if (checkFinished(mathThreads))
-                    finished.run(benchmarkTimer.stop());
-            });
+        for (int pass = 0; pass < PREVIEW_STRIDES.length; pass++) {
+            int currentPass = pass;
+            previews = previews.thenCompose(ignored -> runPreview(mathLogic, timestamps, currentPass, stepFactor));
         }
 
-        Arrays.stream(mathThreads).forEach(Thread::start);
+        previews.thenCompose(ignored -> runFullPass(mathLogic, timestamps, nativeTime, stepFactor)).thenApply(travelDistance -> {
+            if (cancelled.get())
+                throw new CancellationException();
+
+            return new SimCompletedInfo(benchmarkTimer.stop(), travelDistance);
+        }).whenComplete((completedInfo, throwable) -> {
+            this.paper.clearTemporaryMarks();
+            this.progress.finish();
+
+            if (throwable != null) {
+                this.completion.completeExceptionally(throwable);
+                return;
+            }
+
+            this.update.run(new SimRenderState(nativeTime, nativeTime));
+            this.completion.complete(completedInfo);
+        });
+    }
+
+    /**
+     * It records the points of the full pass into a trace, in the order of their timestamps. It has to be called
+     * before the render is started, the caller closes the trace after the render is completed.
+     *
+     * @param trace The trace the points are written into.
+     */
+    public void recordTrace(PointTraceWriter trace) {
+        this.trace = trace;
+    }
+
+    /**
+     * It stops all tasks of this render after their current timestamp, the completion future is cancelled.
+     */
+    public void cancel() {
+        cancelWorkers();
+        this.completion.cancel(false);
     }
 
-    public synchronized void finished() {
-        this.finished = true;
+    public CompletableFuture<SimCompletedInfo> getCompletion() {
+        return completion;
     }
 }
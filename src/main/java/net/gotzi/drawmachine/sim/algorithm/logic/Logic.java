@@ -14,6 +14,12 @@ public abstract class Logic {
     public abstract void run();
 
     protected double distance(SimPoint p1, SimPoint p2) {
-        return Math.sqrt(Math.pow(p1.x() - p2.x(), 2) + Math.pow(p1.y() - p2.y(), 2));
+        return distance(p1.x(), p1.y(), p2.x(), p2.y());
+    }
+
+    protected double distance(double x1, double y1, double x2, double y2) {
+        double dx = x1 - x2;
+        double dy = y1 - y2;
+        return Math.sqrt(dx * dx + dy * dy);
     }
 }
@@ -5,15 +5,89 @@
 
 package net.gotzi.drawmachine.sim.algorithm.logic;
 
+import net.gotzi.drawmachine.sim.Precision;
 import net.gotzi.drawmachine.sim.SimInfo;
 import net.gotzi.drawmachine.api.sim.SimPoint;
+import net.gotzi.drawmachine.api.sim.SimValues;
 import net.gotzi.drawmachine.sim.algorithm.SimGCodeLoader;
 
 public class MathLogic {
-    private final SimInfo simInfo;
 
+    /**
+     * The system property which enables the vector kernel, it also needs the jdk.incubator.vector module.
+     */
+    public static final String VECTOR_PROPERTY = "drawmachine.vectorMath";
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    protected final double middleX;
+    protected final double middleY;
+    protected final double m1X;
+    protected final double m1Y;
+    protected final double m2X;
+    protected final double m2Y;
+    protected final double m1Horn;
+    protected final double m2Horn;
+    protected final double supportPole;
+    protected final double intersection;
+    protected final double ls3;
+
+    /**
+     * It reads the machine geometry once, so the per sample kernel only works on local constants
+     *
+     * @param simInfo The information about the simulation.
+     */
     public MathLogic(SimInfo simInfo) {
-        this.simInfo = simInfo;
+        SimValues simValues = simInfo.getSimValues();
+
+        this.middleX = simValues.middlePoint().x();
+        this.middleY = simValues.middlePoint().y();
+        this.m1X = simValues.m1Point().x();
+        this.m1Y = simValues.m1Point().y();
+        this.m2X = simValues.m2Point().x();
+        this.m2Y = simValues.m2Point().y();
+        this.m1Horn = simValues.m1Horn();
+        this.m2Horn = simValues.m2Horn();
+        this.supportPole = simValues.supportPole();
+        this.intersection = simValues.intersection();
+        this.ls3 = simValues.mainPole() - simValues.intersection();
+    }
+
+    /**
+     * It creates the kernel for a render. Approximate renders use the table kernel. The vector kernel is used if it is
+     * enabled with the system property and the vector module was added to the JVM, otherwise the scalar kernel is
+     * used.
+     *
+     * @param simInfo The information about the simulation.
+     * @return The kernel of the render.
+     */
+    public static MathLogic create(SimInfo simInfo) {
+        return create(simInfo, Boolean.getBoolean(VECTOR_PROPERTY));
+    }
+
+    /**
+     * It creates the kernel for a render, the vector kernel falls back to the scalar kernel if the vector module is
+     * missing.
+     *
+     * @param simInfo The information about the simulation.
+     * @param vector If the vector kernel should be used.
+     * @return The kernel of the render.
+     */
+    public static MathLogic create(SimInfo simInfo, boolean vector) {
+        if (simInfo.getPrecision() == Precision.APPROXIMATE)
+            return new ApproximateMathLogic(simInfo);
+
+        if (vector && isVectorAvailable())
+            return VectorMathLogic.newInstance(simInfo);
+
+        return new MathLogic(simInfo);
+    }
+
+    /**
+     * @return If the vector module was added to the JVM, with --add-modules jdk.incubator.vector.
+     */
+    public static boolean isVectorAvailable() {
+        return ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent();
     }
 
     /**
@@ -34,64 +108,102 @@ public class MathLogic {
      * @return The point where the pencil is.
      */
     protected SimPoint calculatePencilPoint(double timestamp, SimGCodeLoader simGCodeLoader) {
+        double[] x = new double[1];
+        double[] y = new double[1];
+
+        calculatePencilPoint(timestamp, simGCodeLoader, x, y, 0);
+
+        return new SimPoint(x[0], y[0]);
+    }
+
+    /**
+     * The function calculates the position of the pencil point and writes it into the given arrays, it doesn't
+     * allocate anything, so it can be called for every sample of a fast render
+     *
+     * @param timestamp The current step of the simulation
+     * @param simGCodeLoader The loader which resolves the motor angles.
+     * @param xs The array the x coordinate is written into.
+     * @param ys The array the y coordinate is written into.
+     * @param index The index in both arrays.
+     */
+    protected void calculatePencilPoint(double timestamp, SimGCodeLoader simGCodeLoader, double[] xs, double[] ys, int index) {
         double middleDegree = simGCodeLoader.getMiddleDegree(timestamp);
         double m1Degree = simGCodeLoader.getStepperADegree(timestamp);
         double m2Degree = simGCodeLoader.getStepperBDegree(timestamp);
 
-        double m1exOffset = Math.cos(Math.toRadians(m1Degree)) * simInfo.getSimValues().m1Horn();
-        double m1eyOffset = Math.sin(Math.toRadians(m1Degree)) * simInfo.getSimValues().m1Horn();
+        double m1Radiant = Math.toRadians(m1Degree);
+        double m2Radiant = Math.toRadians(m2Degree);
 
-        double m2exOffset = Math.cos(Math.toRadians(m2Degree)) * simInfo.getSimValues().m2Horn();
-        double m2eyOffset = Math.sin(Math.toRadians(m2Degree)) * simInfo.getSimValues().m2Horn();
+        double m1OutX = m1X + cos(m1Radiant) * m1Horn;
+        double m1OutY = m1Y + sin(m1Radiant) * m1Horn;
 
-        HelperPoint m1PositionOut = new HelperPoint(simInfo.getSimValues().m1Point().x() + m1exOffset, simInfo.getSimValues().m1Point().y() + m1eyOffset);
-        HelperPoint m2PositionOut = new HelperPoint(simInfo.getSimValues().m2Point().x() + m2exOffset, simInfo.getSimValues().m2Point().y() + m2eyOffset);
+        double m2OutX = m2X + cos(m2Radiant) * m2Horn;
+        double m2OutY = m2Y + sin(m2Radiant) * m2Horn;
 
-        double c = Math.sqrt(Math.pow(m1PositionOut.x-m2PositionOut.x,2) + Math.pow(m1PositionOut.y-m2PositionOut.y,2));
+        double dx = m1OutX - m2OutX;
+        double dy = m1OutY - m2OutY;
+        double c = Math.sqrt(dx * dx + dy * dy);
 
-        double s = 0.5 * (simInfo.getSimValues().intersection() + simInfo.getSimValues().supportPole() + c);
-        double hc = (2.0/c) * Math.sqrt(s * (s - simInfo.getSimValues().intersection()) * (s - simInfo.getSimValues().supportPole()) * (s - c));
+        double s = 0.5 * (intersection + supportPole + c);
+        double hc = (2.0/c) * Math.sqrt(s * (s - intersection) * (s - supportPole) * (s - c));
 
-        double alphaRadiant = Math.asin(hc/simInfo.getSimValues().supportPole());
-        double miniRadiant = Math.atan((m1PositionOut.y-m2PositionOut.y)/(m1PositionOut.x-m2PositionOut.x));
+        double alphaRadiant = asin(hc/supportPole);
+        double miniRadiant = atan(dy/dx);
 
         double newRadiant = alphaRadiant + miniRadiant;
 
-        double cxOffset = Math.cos(newRadiant) * simInfo.getSimValues().supportPole();
-        double cyOffset = Math.sin(newRadiant) * simInfo.getSimValues().supportPole();
-
-        HelperPoint C = new HelperPoint(m1PositionOut.x + cxOffset, m1PositionOut.y + cyOffset);
-
-        double beta = Math.asin(hc/simInfo.getSimValues().intersection());
-        double ls3 = simInfo.getSimValues().mainPole()-simInfo.getSimValues().intersection();
+        double cX = m1OutX + cos(newRadiant) * supportPole;
+        double cY = m1OutY + sin(newRadiant) * supportPole;
 
-        double pencilXOffset = Math.cos( Math.abs((beta - miniRadiant - Math.PI)) ) * ls3;
-        double pencilYOffset = Math.sin(Math.abs((beta - miniRadiant - Math.PI))) * ls3;
+        double beta = asin(hc/intersection);
+        double pencilRadiant = Math.abs(beta - miniRadiant - Math.PI);
 
-        HelperPoint pencil = new HelperPoint(C.x + pencilXOffset, C.y + pencilYOffset);
+        double pencilX = cX + cos(pencilRadiant) * ls3;
+        double pencilY = cY + sin(pencilRadiant) * ls3;
 
-        double absX = Math.abs(pencil.x - simInfo.getSimValues().middlePoint().x());
-        double absY = Math.abs(pencil.y - simInfo.getSimValues().middlePoint().y());
+        double absX = Math.abs(pencilX - middleX);
+        double absY = Math.abs(pencilY - middleY);
 
         double abs = Math.sqrt(absX * absX + absY * absY);
-        double radiantOffset1 = Math.atan(absY/absX);
+        double middleRadiant = Math.toRadians(middleDegree) + atan(absY/absX);
 
-        double newPencil1X = Math.cos(Math.toRadians(middleDegree) + radiantOffset1) * abs;
-        double newPencil1Y = Math.sin(Math.toRadians(middleDegree) + radiantOffset1) * abs;
+        xs[index] = cos(middleRadiant) * abs + middleX;
+        ys[index] = sin(middleRadiant) * abs + middleY;
+    }
+
+    /**
+     * The function calculates the pencil points of consecutive timestamps and writes them into the given arrays,
+     * starting at index 0. The timestamps are independent of each other, so a kernel can calculate several at once.
+     *
+     * @param start The first step of the batch.
+     * @param size The amount of steps of the batch.
+     * @param stepFactor The amount of steps per time unit.
+     * @param simGCodeLoader The loader which resolves the motor angles.
+     * @param xs The array the x coordinates are written into.
+     * @param ys The array the y coordinates are written into.
+     */
+    protected void calculatePencilPoints(long start, int size, double stepFactor, SimGCodeLoader simGCodeLoader,
+                                         double[] xs, double[] ys) {
+        for (int index = 0; index < size; index++)
+            calculatePencilPoint((double)(start + index)/stepFactor, simGCodeLoader, xs, ys, index);
+    }
 
-        pencil = new HelperPoint(newPencil1X + simInfo.getSimValues().middlePoint().x(), newPencil1Y + simInfo.getSimValues().middlePoint().y());
+    /**
+     * The trigonometric functions of the kernel, a kernel can replace them with approximations.
+     */
+    protected double sin(double radiant) {
+        return Math.sin(radiant);
+    }
 
-        return new SimPoint(pencil.x(), pencil.y());
+    protected double cos(double radiant) {
+        return Math.cos(radiant);
     }
 
-    record HelperPoint(double x, double y) {
+    protected double asin(double value) {
+        return Math.asin(value);
+    }
 
-        @Override
-        public String toString() {
-            return "HelperPoint{" +
-                    "x=" + x +
-                    ", y=" + y +
-                    '}';
-        }
+    protected double atan(double value) {
+        return Math.atan(value);
     }
-}
\ No newline at end of file
+}
@@ -14,7 +14,9 @@ import net.gotzi.drawmachine.error.ThreadInterrupt;
 import net.gotzi.drawmachine.sim.SimInfo;
 import net.gotzi.drawmachine.api.sim.SimPoint;
 import net.gotzi.drawmachine.sim.Canvas;
+import net.gotzi.drawmachine.sim.RenderProgress;
 import net.gotzi.drawmachine.sim.SimRenderer;
+import net.gotzi.drawmachine.sim.StrokeMode;
 import net.gotzi.drawmachine.sim.algorithm.SimGCodeLoader;
 import net.gotzi.drawmachine.utils.BenchmarkTimer;
 
@@ -26,15 +28,17 @@ public class SimLogic extends Logic {
     private final MathLogic mathLogic;
     private final SimGCodeLoader simGCodeLoader;
     private final SimRenderer simRenderer;
+    private final RenderProgress progress;
     private SimCompletedInfo simCompletedInfo;
     private double travelDistance = 0;
     
-    public SimLogic(SimInfo simInfo, SimRenderer simRenderer, Action<SimRenderState> update, Canvas paper) {
+    public SimLogic(SimInfo simInfo, SimRenderer simRenderer, RenderProgress progress, Action<SimRenderState> update, Canvas paper) {
         this.simInfo = simInfo;
         this.update = update;
         this.paper = paper;
         this.simRenderer = simRenderer;
-        this.mathLogic = new MathLogic(this.simInfo);
+        this.progress = progress;
+        this.mathLogic = MathLogic.create(this.simInfo);
         this.simGCodeLoader = new SimGCodeLoader(simInfo.getSimValues().gCode());
     }
 
@@ -65,15 +69,47 @@ public class SimLogic extends Logic {
         timer.start();
 
         System.out.println("start " + time + " " + stepFactor + " " + nativeTime);
-        for (int timestamp = 1; timestamp <= time && simRenderer.isRunning(); timestamp++) {
+        this.progress.start((long) time);
+        this.update.run(new SimRenderState(0, nativeTime));
 
-            lastPoint = this.runStep(((double)timestamp/ stepFactor), lastPoint);
-            this.update.run(new SimRenderState((int) (timestamp/stepFactor), (int) nativeTime));
+        if (simInfo.isAdaptive()) {
+            runAdaptive(nativeTime, stepFactor);
+        } else {
+            long timestamp;
+            for (timestamp = 1; timestamp <= time && simRenderer.isRunning(); timestamp++) {
 
-            awaitForSpeed();
+                lastPoint = this.runStep(((double)timestamp/ stepFactor), lastPoint);
+                this.progress.set(timestamp);
+
+                awaitForSpeed();
+            }
+
+            this.update.run(new SimRenderState((long) ((timestamp - 1)/stepFactor), nativeTime));
         }
 
         this.simCompletedInfo = new SimCompletedInfo(timer.stop(), travelDistance);
+        this.progress.finish();
+    }
+
+    /**
+     * It walks through the program with adaptive steps, every step draws one segment of about the segment length.
+     */
+    private void runAdaptive(long nativeTime, double stepFactor) {
+        AdaptiveSampler sampler = new AdaptiveSampler(this.mathLogic, simGCodeLoader, simInfo);
+        sampler.start(0);
+
+        SimPoint lastPoint = null;
+
+        while (simRenderer.isRunning() && sampler.next(nativeTime)) {
+            SimPoint simPoint = new SimPoint(sampler.getX(), sampler.getY());
+
+            lastPoint = this.drawStep(simPoint, lastPoint);
+            this.progress.set((long) (sampler.getTimestamp() * stepFactor));
+
+            awaitForSpeed();
+        }
+
+        this.update.run(new SimRenderState((long) sampler.getTimestamp(), nativeTime));
     }
 
     /**
@@ -87,9 +123,28 @@ public class SimLogic extends Logic {
     private SimPoint runStep(double timestamp, SimPoint lastPoint) {
         SimPoint simPoint = this.mathLogic.calculatePencilPoint(timestamp, simGCodeLoader);
 
+        return drawStep(simPoint, lastPoint);
+    }
+
+    /**
+     * It adds the travel distance from the last point and draws the point, or the line to it for connected strokes.
+     *
+     * @param simPoint The point of the current step.
+     * @param lastPoint The point of the step before, or null for the first step.
+     * @return The point of the current step.
+     */
+    private SimPoint drawStep(SimPoint simPoint, SimPoint lastPoint) {
         if (lastPoint != null)
             travelDistance += Math.sqrt(Math.pow(lastPoint.x() - simPoint.x(), 2) + Math.pow(lastPoint.y() - simPoint.y(), 2));
 
+        if (simInfo.getStrokeMode().isConnected()) {
+            SimPoint from = lastPoint != null ? lastPoint : simPoint;
+            this.paper.setLine(from.x(), from.y(), simPoint.x(), simPoint.y(),
+                    simInfo.getStrokeMode() == StrokeMode.SMOOTH_LINES);
+
+            return simPoint;
+        }
+
         try {
             this.paper.setPoint((int) simPoint.x(), (int) simPoint.y());
         } catch (PencilOutOfCanvas ignored) {}
@@ -0,0 +1,179 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.algorithm.logic;
+
+import net.gotzi.drawmachine.api.sim.SimEditorValues;
+import net.gotzi.drawmachine.api.sim.SimProgramInfo;
+import net.gotzi.drawmachine.api.sim.SimValues;
+import net.gotzi.drawmachine.sim.SimInfo;
+import net.gotzi.drawmachine.sim.algorithm.RenderPool;
+import net.gotzi.drawmachine.sim.algorithm.SimGCodeLoader;
+import net.gotzi.drawmachine.sim.sweep.SweepRange;
+import net.gotzi.drawmachine.sim.sweep.SweepResult;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class SweepLogic extends Logic {
+
+    private final SimProgramInfo program;
+    private final List<SweepRange> ranges;
+    private final int simulationSteps;
+    private final Dimension paper;
+    private final int thumbnailSize;
+    private final SimGCodeLoader simGCodeLoader;
+    private final CompletableFuture<List<SweepResult>> completion;
+    private final AtomicBoolean cancelled;
+
+    /**
+     * The G-code is compiled once, all combinations look up their motor angles in the same timeline.
+     *
+     * @param program The program whose geometry is the base of the sweep.
+     * @param ranges The swept parameters, every combination of their steps is rendered.
+     * @param simulationSteps The simulation accuracy, 100 equals one sample per time unit.
+     * @param paper The size of the paper, points outside of it are counted as out of canvas.
+     * @param thumbnailSize The width and height of the thumbnails.
+     */
+    public SweepLogic(SimProgramInfo program, List<SweepRange> ranges, int simulationSteps, Dimension paper,
+                      int thumbnailSize) {
+        this.program = program;
+        this.ranges = List.copyOf(ranges);
+        this.simulationSteps = simulationSteps;
+        this.paper = paper;
+        this.thumbnailSize = thumbnailSize;
+        this.completion = new CompletableFuture<>();
+        this.cancelled = new AtomicBoolean(false);
+
+        this.simGCodeLoader = new SimGCodeLoader(program.gcode());
+    }
+
+    @Override
+    public boolean isFinished(int step) {
+        return this.completion.isDone();
+    }
+
+    /**
+     * @return The amount of combinations, the product of the steps of all ranges.
+     */
+    public int getCombinations() {
+        int combinations = 1;
+
+        for (SweepRange range : ranges)
+            combinations = Math.multiplyExact(combinations, range.steps());
+
+        return combinations;
+    }
+
+    /**
+     * It renders every combination as its own task on the shared render pool. The results are in the order of the
+     * combinations, the first range changes slowest
+     */
+    @Override
+    public void run() {
+        int combinations = getCombinations();
+        List<CompletableFuture<SweepResult>> futures = new ArrayList<>(combinations);
+
+        for (int i = 0; i < combinations; i++) {
+            int combination = i;
+            futures.add(CompletableFuture.supplyAsync(() -> renderCombination(combination), RenderPool.get()));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            if (cancelled.get())
+                throw new CancellationException();
+
+            return futures.stream().map(CompletableFuture::join).toList();
+        }).whenComplete((results, throwable) -> {
+            if (throwable != null)
+                this.completion.completeExceptionally(throwable);
+            else
+                this.completion.complete(results);
+        });
+    }
+
+    private SweepResult renderCombination(int combination) {
+        double[] parameterValues = new double[ranges.size()];
+        SimEditorValues editorValues = program.saved();
+
+        for (int i = ranges.size() - 1; i >= 0; i--) {
+            SweepRange range = ranges.get(i);
+
+            parameterValues[i] = range.valueAt(combination % range.steps());
+            editorValues = range.parameter().apply(editorValues, parameterValues[i]);
+            combination /= range.steps();
+        }
+
+        SimInfo simInfo = new SimInfo(SimValues.from(editorValues, program.gcode()), simulationSteps, true);
+        MathLogic mathLogic = new MathLogic(simInfo);
+
+        BufferedImage thumbnail = new BufferedImage(thumbnailSize, thumbnailSize, BufferedImage.TYPE_INT_RGB);
+        int[] pixels = ((DataBufferInt) thumbnail.getRaster().getDataBuffer()).getData();
+        Arrays.fill(pixels, Color.WHITE.getRGB() & 0xFFFFFF);
+
+        double scaleX = (double) thumbnailSize / paper.width;
+        double scaleY = (double) thumbnailSize / paper.height;
+        double stepFactor = simInfo.getStepFactor();
+        long timestamps = (long) Math.ceil(simGCodeLoader.getFullTime() * stepFactor);
+
+        double[] x = new double[1];
+        double[] y = new double[1];
+        double lastX = Double.NaN;
+        double lastY = Double.NaN;
+        double travelDistance = 0;
+        long outOfCanvas = 0;
+
+        for (long timestamp = 0; timestamp < timestamps && !cancelled.get(); timestamp++) {
+            mathLogic.calculatePencilPoint((double)timestamp/stepFactor, simGCodeLoader, x, y, 0);
+
+            if (Double.isNaN(x[0]) || Double.isNaN(y[0])) {
+                outOfCanvas++;
+                lastX = Double.NaN;
+                continue;
+            }
+
+            if (!Double.isNaN(lastX))
+                travelDistance += distance(lastX, lastY, x[0], y[0]);
+
+            lastX = x[0];
+            lastY = y[0];
+
+            int pixelX = paper.width - (int) x[0];
+            int pixelY = paper.height - (int) y[0];
+
+            if (pixelX < 0 || pixelX >= paper.width || pixelY < 0 || pixelY >= paper.height) {
+                outOfCanvas++;
+                continue;
+            }
+
+            pixels[(int) (pixelY * scaleY) * thumbnailSize + (int) (pixelX * scaleX)] = 0;
+        }
+
+        return new SweepResult(parameterValues, editorValues, travelDistance, outOfCanvas, timestamps, thumbnail);
+    }
+
+    /**
+     * It stops all combinations after their current timestamp, the completion future is cancelled.
+     */
+    public void cancel() {
+        this.cancelled.set(true);
+        this.completion.cancel(false);
+    }
+
+    public CompletableFuture<List<SweepResult>> getCompletion() {
+        return completion;
+    }
+
+    public List<SweepRange> getRanges() {
+        return ranges;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.algorithm.logic;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import net.gotzi.drawmachine.sim.SimInfo;
+import net.gotzi.drawmachine.sim.algorithm.SimGCodeLoader;
+
+public class VectorMathLogic extends MathLogic {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private static final double DEGREES_TO_RADIANS = Math.PI / 180.0;
+
+    /**
+     * The vector kernel calculates as many timestamps at once as the CPU has lanes for doubles. Only this class uses
+     * the vector module, so it is only loaded if the module is there.
+     *
+     * @param simInfo The information about the simulation.
+     */
+    private VectorMathLogic(SimInfo simInfo) {
+        super(simInfo);
+    }
+
+    static MathLogic newInstance(SimInfo simInfo) {
+        return new VectorMathLogic(simInfo);
+    }
+
+    /**
+     * The motor angles are resolved one by one, then the trigonometry of the whole kernel runs on vectors of
+     * timestamps. The timestamps which don't fill a vector anymore are calculated by the scalar kernel
+     */
+    @Override
+    protected void calculatePencilPoints(long start, int size, double stepFactor, SimGCodeLoader simGCodeLoader,
+                                         double[] xs, double[] ys) {
+        int lanes = SPECIES.length();
+        int upperBound = SPECIES.loopBound(size);
+
+        double[] middleDegrees = new double[lanes];
+        double[] m1Degrees = new double[lanes];
+        double[] m2Degrees = new double[lanes];
+
+        for (int index = 0; index < upperBound; index += lanes) {
+            for (int lane = 0; lane < lanes; lane++) {
+                double timestamp = (double)(start + index + lane)/stepFactor;
+
+                middleDegrees[lane] = simGCodeLoader.getMiddleDegree(timestamp);
+                m1Degrees[lane] = simGCodeLoader.getStepperADegree(timestamp);
+                m2Degrees[lane] = simGCodeLoader.getStepperBDegree(timestamp);
+            }
+
+            calculateVector(middleDegrees, m1Degrees, m2Degrees, xs, ys, index);
+        }
+
+        for (int index = upperBound; index < size; index++)
+            calculatePencilPoint((double)(start + index)/stepFactor, simGCodeLoader, xs, ys, index);
+    }
+
+    /**
+     * The same calculation as {@link #calculatePencilPoint(double, SimGCodeLoader, double[], double[], int)}, lane by
+     * lane.
+     */
+    private void calculateVector(double[] middleDegrees, double[] m1Degrees, double[] m2Degrees,
+                                 double[] xs, double[] ys, int index) {
+        DoubleVector m1Radiant = DoubleVector.fromArray(SPECIES, m1Degrees, 0).mul(DEGREES_TO_RADIANS);
+        DoubleVector m2Radiant = DoubleVector.fromArray(SPECIES, m2Degrees, 0).mul(DEGREES_TO_RADIANS);
+
+        DoubleVector m1OutX = m1Radiant.lanewise(VectorOperators.COS).mul(m1Horn).add(m1X);
+        DoubleVector m1OutY = m1Radiant.lanewise(VectorOperators.SIN).mul(m1Horn).add(m1Y);
+
+        DoubleVector m2OutX = m2Radiant.lanewise(VectorOperators.COS).mul(m2Horn).add(m2X);
+        DoubleVector m2OutY = m2Radiant.lanewise(VectorOperators.SIN).mul(m2Horn).add(m2Y);
+
+        DoubleVector dx = m1OutX.sub(m2OutX);
+        DoubleVector dy = m1OutY.sub(m2OutY);
+        DoubleVector c = dx.mul(dx).add(dy.mul(dy)).sqrt();
+
+        DoubleVector s = c.add(intersection + supportPole).mul(0.5);
+        DoubleVector area = s.mul(s.sub(intersection)).mul(s.sub(supportPole)).mul(s.sub(c)).sqrt();
+        DoubleVector hc = DoubleVector.broadcast(SPECIES, 2.0).div(c).mul(area);
+
+        DoubleVector alphaRadiant = hc.div(supportPole).lanewise(VectorOperators.ASIN);
+        DoubleVector miniRadiant = dy.div(dx).lanewise(VectorOperators.ATAN);
+
+        DoubleVector newRadiant = alphaRadiant.add(miniRadiant);
+
+        DoubleVector cX = newRadiant.lanewise(VectorOperators.COS).mul(supportPole).add(m1OutX);
+        DoubleVector cY = newRadiant.lanewise(VectorOperators.SIN).mul(supportPole).add(m1OutY);
+
+        DoubleVector beta = hc.div(intersection).lanewise(VectorOperators.ASIN);
+        DoubleVector pencilRadiant = beta.sub(miniRadiant).sub(Math.PI).abs();
+
+        DoubleVector pencilX = pencilRadiant.lanewise(VectorOperators.COS).mul(ls3).add(cX);
+        DoubleVector pencilY = pencilRadiant.lanewise(VectorOperators.SIN).mul(ls3).add(cY);
+
+        DoubleVector absX = pencilX.sub(middleX).abs();
+        DoubleVector absY = pencilY.sub(middleY).abs();
+
+        DoubleVector abs = absX.mul(absX).add(absY.mul(absY)).sqrt();
+        DoubleVector middleRadiant = DoubleVector.fromArray(SPECIES, middleDegrees, 0).mul(DEGREES_TO_RADIANS)
+                .add(absY.div(absX).lanewise(VectorOperators.ATAN));
+
+        middleRadiant.lanewise(VectorOperators.COS).mul(abs).add(middleX).intoArray(xs, index);
+        middleRadiant.lanewise(VectorOperators.SIN).mul(abs).add(middleY).intoArray(ys, index);
+    }
+}
@@ -0,0 +1,19 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.cache;
+
+import net.gotzi.drawmachine.api.sim.SimCompletedInfo;
+
+/**
+ * A finished render.
+ *
+ * @param width The width of the canvas which was rendered.
+ * @param height The height of the canvas which was rendered.
+ * @param penPixels One bit per pixel of the canvas, set where the pencil has drawn.
+ * @param completedInfo The information of the completed render.
+ */
+public record CachedRender(int width, int height, long[] penPixels, SimCompletedInfo completedInfo) {
+}
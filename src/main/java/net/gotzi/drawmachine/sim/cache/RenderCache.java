@@ -0,0 +1,192 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.cache;
+
+import net.gotzi.drawmachine.api.sim.SimCompletedInfo;
+import net.gotzi.drawmachine.api.sim.SimValues;
+import net.gotzi.drawmachine.sim.StrokeMode;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class RenderCache {
+
+    public static final String DIRECTORY_NAME = ".render-cache";
+
+    private static final int FILE_MAGIC = 0x444D5243;
+    private static final int FILE_VERSION = 3;
+    private static final String FILE_EXTENSION = ".dmrc";
+
+    private final Map<String, CachedRender> memory;
+    private final Supplier<String> workspaceDirectory;
+
+    /**
+     * @param capacity The maximum amount of renders which are kept in memory, the least recently used one is evicted
+     *                 first.
+     * @param workspaceDirectory It returns the directory of the current workspace, the disk tier is stored inside it.
+     *                           If it returns null, only the memory tier is used.
+     */
+    public RenderCache(int capacity, Supplier<String> workspaceDirectory) {
+        this.workspaceDirectory = workspaceDirectory;
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedRender> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * It creates the key of a render, a SHA-256 hash of the program, the step factor, the stroke, the segment length
+     * of adaptive steps and the size of the canvas. Comments and whitespace of the source don't change the key.
+     *
+     * @param simValues The values of the program.
+     * @param stepFactor The step factor of the render.
+     * @param strokeMode The stroke of the render.
+     * @param segmentLength The segment length of adaptive steps, or 0 for fixed steps.
+     * @param width The width of the canvas.
+     * @param height The height of the canvas.
+     * @return The key as a hex string.
+     */
+    public static String createKey(SimValues simValues, double stepFactor, StrokeMode strokeMode,
+                                   double segmentLength, int width, int height) {
+        MessageDigest digest = SimValuesHash.createDigest();
+        SimValuesHash.update(digest, simValues);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        try {
+            out.writeDouble(stepFactor);
+            out.writeUTF(strokeMode.name());
+            out.writeDouble(segmentLength);
+            out.writeInt(width);
+            out.writeInt(height);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        digest.update(bytes.toByteArray());
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * It looks up the render in memory first and then on disk, a render found on disk is moved into memory.
+     *
+     * @param key The key created by {@link #createKey(SimValues, double, StrokeMode, double, int, int)}.
+     * @return The render, or null if it isn't cached.
+     */
+    public CachedRender get(String key) {
+        synchronized (memory) {
+            CachedRender render = memory.get(key);
+
+            if (render != null)
+                return render;
+        }
+
+        CachedRender render = readFile(key);
+
+        if (render != null) {
+            synchronized (memory) {
+                memory.put(key, render);
+            }
+        }
+
+        return render;
+    }
+
+    /**
+     * It stores the render in memory and on disk.
+     *
+     * @param key The key created by {@link #createKey(SimValues, double, StrokeMode, double, int, int)}.
+     * @param render The finished render.
+     */
+    public void put(String key, CachedRender render) {
+        synchronized (memory) {
+            memory.put(key, render);
+        }
+
+        writeFile(key, render);
+    }
+
+    private Path getFile(String key) {
+        String directory = workspaceDirectory.get();
+
+        if (directory == null)
+            return null;
+
+        return Path.of(directory, DIRECTORY_NAME, key + FILE_EXTENSION);
+    }
+
+    private CachedRender readFile(String key) {
+        Path file = getFile(key);
+
+        if (file == null || !Files.isRegularFile(file))
+            return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION)
+                return null;
+
+            int width = in.readInt();
+            int height = in.readInt();
+            SimCompletedInfo completedInfo = new SimCompletedInfo(in.readLong(), in.readDouble());
+
+            long[] penPixels = new long[in.readInt()];
+            for (int i = 0; i < penPixels.length; i++)
+                penPixels[i] = in.readLong();
+
+            return new CachedRender(width, height, penPixels, completedInfo);
+        } catch (IOException e) {
+            System.err.println("Render cache file " + file + " couldn't be read: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * The file is written next to its final location and moved afterwards, so a reader never sees half a file.
+     */
+    private void writeFile(String key, CachedRender render) {
+        Path file = getFile(key);
+
+        if (file == null)
+            return;
+
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), key, ".tmp");
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(temp))))) {
+                out.writeInt(FILE_MAGIC);
+                out.writeInt(FILE_VERSION);
+                out.writeInt(render.width());
+                out.writeInt(render.height());
+                out.writeLong(render.completedInfo().calculationTime());
+                out.writeDouble(render.completedInfo().travelDistance());
+                out.writeInt(render.penPixels().length);
+
+                for (long bits : render.penPixels())
+                    out.writeLong(bits);
+            }
+
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Render cache file " + file + " couldn't be written: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.cache;
+
+import net.gotzi.drawmachine.api.sim.SimValues;
+import net.gotzi.drawmachine.sim.gcode.GCodeConstructError;
+import net.gotzi.drawmachine.sim.gcode.GCodeInstruction;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+public class SimValuesHash {
+
+    public static final int LENGTH = 32;
+
+    /**
+     * opcode, motor, degree, duration, acceleration, acceleration distance and count, the position is left out.
+     */
+    private static final int INSTRUCTION_BYTES = 4 + 4 + 8 + 8 + 8 + 8 + 8;
+
+    /**
+     * @return A new SHA-256 digest.
+     */
+    public static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * It hashes the geometry and the compiled instructions of a program. Comments, whitespace, the way numbers are
+     * written and the lines the instructions are on don't change the hash.
+     *
+     * @param simValues The values of the program.
+     * @return The SHA-256 hash.
+     */
+    public static byte[] of(SimValues simValues) {
+        MessageDigest digest = createDigest();
+        update(digest, simValues);
+        return digest.digest();
+    }
+
+    /**
+     * It adds the geometry and the compiled instructions of a program to the digest. A program which doesn't compile
+     * adds its source instead, it can't be rendered anyway.
+     *
+     * @param digest The digest the program is added to.
+     * @param simValues The values of the program.
+     */
+    public static void update(MessageDigest digest, SimValues simValues) {
+        ByteBuffer geometry = ByteBuffer.allocate(11 * Double.BYTES);
+
+        geometry.putDouble(simValues.middlePoint().x());
+        geometry.putDouble(simValues.middlePoint().y());
+        geometry.putDouble(simValues.m1Point().x());
+        geometry.putDouble(simValues.m1Point().y());
+        geometry.putDouble(simValues.m2Point().x());
+        geometry.putDouble(simValues.m2Point().y());
+        geometry.putDouble(simValues.m1Horn());
+        geometry.putDouble(simValues.m2Horn());
+        geometry.putDouble(simValues.mainPole());
+        geometry.putDouble(simValues.supportPole());
+        geometry.putDouble(simValues.intersection());
+
+        digest.update(geometry.array());
+
+        List<GCodeInstruction> instructions;
+
+        try {
+            instructions = simValues.gCode().getInstructions();
+        } catch (GCodeConstructError e) {
+            digest.update((byte) 0);
+
+            for (String line : simValues.gCode().getSource())
+                digest.update((line + '\n').getBytes(StandardCharsets.UTF_8));
+
+            return;
+        }
+
+        ByteBuffer instruction = ByteBuffer.allocate(INSTRUCTION_BYTES);
+        digest.update((byte) 1);
+
+        for (GCodeInstruction gCodeInstruction : instructions) {
+            instruction.clear();
+            instruction.putInt(gCodeInstruction.opcode().ordinal());
+            instruction.putInt(gCodeInstruction.motor() == null ? -1 : gCodeInstruction.motor().ordinal());
+            instruction.putDouble(gCodeInstruction.degree() + 0.0);
+            instruction.putLong(gCodeInstruction.duration());
+            instruction.putDouble(gCodeInstruction.acceleration() + 0.0);
+            instruction.putDouble(gCodeInstruction.accelerationDist() + 0.0);
+            instruction.putLong(gCodeInstruction.count());
+
+            digest.update(instruction.array());
+        }
+    }
+}
@@ -5,18 +5,54 @@
 
 package net.gotzi.drawmachine.sim.gcode;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class GCode {
 
     public String[] source;
 
+    private List<GCodeInstruction> instructions;
+    private GCodeConstructError error;
+
     public GCode(String[] source) {
         this.source = source;
     }
 
+    /**
+     * A program which has already been compiled, for example by a GCodeModel.
+     *
+     * @param source The lines of the program.
+     * @param instructions The compiled instructions, or null if the program is invalid.
+     * @param error The error of the program, or null if it is valid.
+     */
+    GCode(String[] source, List<GCodeInstruction> instructions, GCodeConstructError error) {
+        this.source = source;
+        this.instructions = instructions;
+        this.error = error;
+    }
+
     public String[] getSource() {
         return source;
     }
+
+    /**
+     * The program is compiled on the first call, every simulation of the same program shares the instructions
+     *
+     * @return The compiled instructions.
+     * @throws GCodeConstructError If the program is invalid.
+     */
+    public synchronized List<GCodeInstruction> getInstructions() throws GCodeConstructError {
+        if (instructions == null && error == null) {
+            try {
+                this.instructions = GCodeCompiler.compile(source);
+            } catch (GCodeConstructError e) {
+                this.error = e;
+            }
+        }
+
+        if (error != null)
+            throw error;
+
+        return instructions;
+    }
 }
@@ -0,0 +1,201 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.gcode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class GCodeCompiler {
+
+    private final List<GCodeInstruction> instructions;
+
+    private GCodeInstruction sequence = null;
+    private int sequenceMotors = 0;
+    private GCodeInstruction repeat = null;
+    private boolean repeatMoves = false;
+
+    private long duration = 0;
+    private long sequenceDuration = 0;
+    private long repeatPeriod = 0;
+
+    /**
+     * The compiler links parsed instructions into a program. It checks how the lines fit together and resolves what
+     * a line takes from the lines before it
+     *
+     * @param capacity The expected amount of instructions.
+     */
+    public GCodeCompiler(int capacity) {
+        this.instructions = new ArrayList<>(capacity);
+    }
+
+    /**
+     * It compiles the source in a single pass into a list of typed instructions. Empty lines and comments are skipped,
+     * a G8 sequence keeps its G8 and G9 instruction around its lines and lines without D get the D of the G8. A G10
+     * repeat block is kept the same way, its body is not unrolled.
+     *
+     * @param source The lines of the program.
+     * @return The instructions in program order.
+     * @throws GCodeConstructError If the program is invalid, it carries the line and column of the problem.
+     */
+    public static List<GCodeInstruction> compile(String[] source) throws GCodeConstructError {
+        GCodeLexer lexer = new GCodeLexer(source);
+        GCodeCompiler compiler = new GCodeCompiler(source.length);
+        List<GCodeInstruction> line = new ArrayList<>(Motor.values().length);
+
+        while (lexer.nextLine()) {
+            GCodeParser.parseLine(lexer, line);
+
+            for (GCodeInstruction instruction : line)
+                compiler.link(instruction);
+
+            line.clear();
+        }
+
+        return compiler.finish();
+    }
+
+    /**
+     * It appends the next parsed instruction of the program.
+     *
+     * @param instruction The instruction, its line has to be after the ones before.
+     * @throws GCodeConstructError If the instruction doesn't fit to the instructions before it.
+     */
+    public void link(GCodeInstruction instruction) throws GCodeConstructError {
+        switch (instruction.opcode()) {
+            case OFFSET -> {
+                if (sequence != null || repeat != null)
+                    throw error("G54 isn't allowed inside of a sequence or a repeat block", instruction);
+            }
+            case SEQUENCE_BEGIN -> {
+                if (sequence != null)
+                    throw error("sequences can't be nested", instruction);
+
+                this.sequence = instruction;
+                this.sequenceMotors = 0;
+                this.sequenceDuration = Math.max(0, instruction.duration());
+            }
+            case SEQUENCE_END -> {
+                if (sequence == null)
+                    throw error("G9 without G8", instruction);
+
+                if (sequenceMotors == 0)
+                    throw error("empty sequence", instruction);
+
+                addDuration(sequenceDuration, sequence);
+                this.sequence = null;
+            }
+            case REPEAT_BEGIN -> {
+                if (repeat != null)
+                    throw error("repeat blocks can't be nested", instruction);
+
+                if (sequence != null)
+                    throw error("G10 isn't allowed inside of a sequence", instruction);
+
+                this.repeat = instruction;
+                this.repeatMoves = false;
+                this.repeatPeriod = 0;
+            }
+            case REPEAT_END -> {
+                if (repeat == null)
+                    throw error("G11 without G10", instruction);
+
+                if (sequence != null)
+                    throw error("G8 isn't closed by G9", sequence);
+
+                if (!repeatMoves)
+                    throw error("empty repeat block", instruction);
+
+                GCodeInstruction begin = repeat;
+                this.repeat = null;
+
+                try {
+                    addDuration(Math.multiplyExact(repeatPeriod, begin.count()), begin);
+                } catch (ArithmeticException e) {
+                    throw error("the repeat block is too long, its duration overflows", begin);
+                }
+            }
+            default -> instruction = linkMove(instruction);
+        }
+
+        instructions.add(instruction);
+    }
+
+    private GCodeInstruction linkMove(GCodeInstruction instruction) throws GCodeConstructError {
+        String name = "G" + instruction.opcode().getCode();
+        Motor motor = instruction.motor();
+        long duration = instruction.duration();
+
+        if (duration < 0 && sequence != null)
+            duration = sequence.duration();
+
+        if (duration < 0)
+            throw error(name + " needs a duration D", instruction);
+
+        if (instruction.opcode() == GCodeOpcode.MOVE_TRAPEZOID || instruction.opcode() == GCodeOpcode.MOVE_S_CURVE) {
+            if (duration == 0)
+                throw error(name + " needs a duration D larger than 0", instruction);
+
+            double ramp = instruction.accelerationDist();
+
+            if (ramp < 0 || 2 * ramp > duration)
+                throw error("the ramp duration T has to be between 0 and half of D", instruction);
+        }
+
+        if (sequence != null) {
+            if ((sequenceMotors & (1 << motor.ordinal())) != 0)
+                throw error("motor " + motor + " is already driven in this sequence", instruction);
+
+            sequenceMotors |= 1 << motor.ordinal();
+        }
+
+        this.repeatMoves = true;
+
+        if (sequence != null)
+            this.sequenceDuration = Math.max(sequenceDuration, duration);
+        else
+            addDuration(duration, instruction);
+
+        return duration == instruction.duration() ? instruction : instruction.withDuration(duration);
+    }
+
+    /**
+     * It adds the duration of a snippet to the repeat block it is in or to the program. The timeline sums the
+     * durations the same way, so a program which is linked here can't overflow there
+     */
+    private void addDuration(long snippetDuration, GCodeInstruction instruction) throws GCodeConstructError {
+        if (repeat != null) {
+            try {
+                this.repeatPeriod = Math.addExact(repeatPeriod, snippetDuration);
+            } catch (ArithmeticException e) {
+                throw error("the repeat block is too long, its duration overflows", repeat);
+            }
+        } else {
+            try {
+                this.duration = Math.addExact(duration, snippetDuration);
+            } catch (ArithmeticException e) {
+                throw error("the program is too long, its duration overflows", instruction);
+            }
+        }
+    }
+
+    /**
+     * @return The linked instructions.
+     * @throws GCodeConstructError If a sequence or a repeat block isn't closed.
+     */
+    public List<GCodeInstruction> finish() throws GCodeConstructError {
+        if (sequence != null)
+            throw error("G8 isn't closed by G9", sequence);
+
+        if (repeat != null)
+            throw error("G10 isn't closed by G11", repeat);
+
+        return instructions;
+    }
+
+    private GCodeConstructError error(String message, GCodeInstruction instruction) {
+        return new GCodeConstructError(message, instruction.line(), instruction.column());
+    }
+}
@@ -6,4 +6,43 @@
 package net.gotzi.drawmachine.sim.gcode;
 
 public class GCodeConstructError extends Exception {
+
+    private final String reason;
+    private final int line;
+    private final int column;
+
+    /**
+     * @param message What is wrong with the G-code.
+     * @param line The line of the error, starting at 1.
+     * @param column The column of the error, starting at 1.
+     */
+    public GCodeConstructError(String message, int line, int column) {
+        super(line + ":" + column + ": " + message);
+        this.reason = message;
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * @param line The new line of the error, after lines above it have been added or removed.
+     * @return The same error at the line.
+     */
+    public GCodeConstructError atLine(int line) {
+        return line == this.line ? this : new GCodeConstructError(reason, line, column);
+    }
+
+    /**
+     * @return The message without its position.
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
 }
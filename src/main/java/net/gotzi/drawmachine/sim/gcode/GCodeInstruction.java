@@ -0,0 +1,42 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.gcode;
+
+/**
+ * One instruction of a compiled program. Values which the opcode doesn't use are 0, the motor is null if the opcode
+ * doesn't drive one.
+ *
+ * @param opcode The kind of the instruction.
+ * @param motor The motor of a move or an offset.
+ * @param degree The degree of a move or the angle of an offset.
+ * @param duration The duration of a move in native time, or the default duration of a sequence.
+ * @param acceleration The W parameter of an accelerated move.
+ * @param accelerationDist The T parameter of an accelerated move, the duration of each ramp for G2 and G3.
+ * @param count The N parameter of a repeat block, how often its body runs.
+ * @param line The line of the instruction in the source, starting at 1.
+ * @param column The column of the G word, starting at 1.
+ */
+public record GCodeInstruction(GCodeOpcode opcode,
+                               Motor motor,
+                               double degree,
+                               long duration,
+                               double acceleration,
+                               double accelerationDist,
+                               long count,
+                               int line,
+                               int column) {
+
+    public GCodeInstruction withDuration(long duration) {
+        return new GCodeInstruction(opcode, motor, degree, duration, acceleration, accelerationDist, count, line, column);
+    }
+
+    /**
+     * @param line The new line of the instruction, after lines above it have been added or removed.
+     */
+    public GCodeInstruction withLine(int line) {
+        return new GCodeInstruction(opcode, motor, degree, duration, acceleration, accelerationDist, count, line, column);
+    }
+}
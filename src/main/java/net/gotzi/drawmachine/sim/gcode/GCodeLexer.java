@@ -0,0 +1,267 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.gcode;
+
+public class GCodeLexer {
+
+    /**
+     * The largest mantissa which is still exact as a double. Longer numbers are left to Double.parseDouble.
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+
+        for (int i = 1; i < POWERS_OF_TEN.length; i++)
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+
+    private final String[] source;
+
+    private int lineIndex = -1;
+    private String text = "";
+    private int position = 0;
+    private boolean inBlockComment = false;
+
+    private char letter;
+    private double value;
+    private int column;
+
+    /**
+     * The lexer reads the source character by character and splits it into words, a letter followed by a number like
+     * G0 or A-99.5. Words don't need spaces between them, line and block comments like in Java are skipped
+     *
+     * @param source The lines of the program.
+     */
+    public GCodeLexer(String[] source) {
+        this.source = source;
+    }
+
+    /**
+     * A lexer without source, it only reads lines which are given to it by startLine.
+     */
+    public GCodeLexer() {
+        this(new String[0]);
+    }
+
+    /**
+     * It moves the lexer to the beginning of the next line.
+     *
+     * @return If there was another line.
+     */
+    public boolean nextLine() {
+        if (lineIndex + 1 >= source.length)
+            return false;
+
+        startLine(source[lineIndex + 1], lineIndex + 1, inBlockComment);
+        return true;
+    }
+
+    /**
+     * It moves the lexer to the beginning of a single line, for example to parse an edited line again.
+     *
+     * @param text The text of the line.
+     * @param lineIndex The index of the line, starting at 0.
+     * @param inBlockComment If the line starts inside of a block comment which was opened before it.
+     */
+    public void startLine(String text, int lineIndex, boolean inBlockComment) {
+        this.lineIndex = lineIndex;
+        this.text = text == null ? "" : text;
+        this.position = 0;
+        this.inBlockComment = inBlockComment;
+    }
+
+    /**
+     * It skips the rest of the current line, only comments are still tracked. It is used after an error, so the lexer
+     * knows if the next line starts inside of a block comment.
+     */
+    public void finishLine() {
+        while (position < text.length()) {
+            skipBlank();
+
+            if (position < text.length())
+                this.position++;
+        }
+    }
+
+    /**
+     * It reads the next word of the current line, its letter, value and column can be requested afterwards.
+     *
+     * @return If there was another word in the line.
+     * @throws GCodeConstructError If the line contains something else than words and comments.
+     */
+    public boolean nextWord() throws GCodeConstructError {
+        skipBlank();
+
+        if (position >= text.length())
+            return false;
+
+        char c = text.charAt(position);
+
+        if (!isLetter(c))
+            throw error("unexpected character '" + c + "'", position);
+
+        this.column = position + 1;
+        this.letter = Character.toUpperCase(c);
+        this.position++;
+        this.value = readNumber();
+        return true;
+    }
+
+    private void skipBlank() {
+        int length = text.length();
+
+        while (position < length) {
+            if (inBlockComment) {
+                int end = text.indexOf("*/", position);
+
+                if (end < 0) {
+                    this.position = length;
+                    return;
+                }
+
+                this.position = end + 2;
+                this.inBlockComment = false;
+                continue;
+            }
+
+            char c = text.charAt(position);
+
+            if (c == ' ' || c == '\t' || c == '\r') {
+                this.position++;
+            } else if (c == '/' && position + 1 < length && text.charAt(position + 1) == '/') {
+                this.position = length;
+            } else if (c == '/' && position + 1 < length && text.charAt(position + 1) == '*') {
+                this.position += 2;
+                this.inBlockComment = true;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * It reads a decimal number at the current position. Plain numbers like -99000 or 12.5 are assembled from their
+     * digits, only long ones or ones with an exponent are parsed by Double.parseDouble.
+     */
+    private double readNumber() throws GCodeConstructError {
+        int start = position;
+        int length = text.length();
+        boolean negative = false;
+
+        if (position < length && (text.charAt(position) == '-' || text.charAt(position) == '+')) {
+            negative = text.charAt(position) == '-';
+            this.position++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean exact = true;
+        boolean fraction = false;
+
+        while (position < length) {
+            char c = text.charAt(position);
+
+            if (c >= '0' && c <= '9') {
+                if (mantissa < MAX_EXACT_MANTISSA / 10)
+                    mantissa = mantissa * 10 + (c - '0');
+                else
+                    exact = false;
+
+                digits++;
+
+                if (fraction)
+                    fractionDigits++;
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+
+            this.position++;
+        }
+
+        if (digits == 0)
+            throw error("expected a number after '" + letter + "'", start);
+
+        if (position < length && (text.charAt(position) == 'e' || text.charAt(position) == 'E')
+                && position + 1 < length && isExponentStart(text.charAt(position + 1))) {
+            this.position += 2;
+
+            while (position < length && Character.isDigit(text.charAt(position)))
+                this.position++;
+
+            exact = false;
+        }
+
+        if (!exact || fractionDigits >= POWERS_OF_TEN.length) {
+            try {
+                return Double.parseDouble(text.substring(start, position));
+            } catch (NumberFormatException e) {
+                throw error("invalid number '" + text.substring(start, position) + "'", start);
+            }
+        }
+
+        double value = fractionDigits == 0 ? mantissa : mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    private boolean isExponentStart(char c) {
+        return Character.isDigit(c) || c == '-' || c == '+';
+    }
+
+    private boolean isLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    /**
+     * @param message What is wrong.
+     * @param position The position in the current line, starting at 0.
+     * @return An error at the position of the current line.
+     */
+    public GCodeConstructError error(String message, int position) {
+        return new GCodeConstructError(message, getLine(), position + 1);
+    }
+
+    /**
+     * @return An error at the current word.
+     */
+    public GCodeConstructError error(String message) {
+        return new GCodeConstructError(message, getLine(), column);
+    }
+
+    /**
+     * @return If a block comment is still open at the current position.
+     */
+    public boolean isInBlockComment() {
+        return inBlockComment;
+    }
+
+    public char getLetter() {
+        return letter;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * @return The column of the current word, starting at 1.
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * @return The current line, starting at 1.
+     */
+    public int getLine() {
+        return lineIndex + 1;
+    }
+}
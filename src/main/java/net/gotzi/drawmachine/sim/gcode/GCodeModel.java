@@ -0,0 +1,142 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.gcode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class GCodeModel {
+
+    private static final GCodeInstruction[] NO_INSTRUCTIONS = new GCodeInstruction[0];
+
+    private final List<ModelLine> lines = new ArrayList<>();
+    private final GCodeLexer lexer = new GCodeLexer();
+    private final List<GCodeInstruction> buffer = new ArrayList<>();
+
+    private GCode gCode;
+
+    /**
+     * The model keeps the parsed instructions of every line of an edited program. After an edit only the changed
+     * lines are parsed again, the program is then linked from the instructions which are already there
+     *
+     * @param source The lines of the program.
+     */
+    public GCodeModel(String[] source) {
+        replaceLines(0, 0, source);
+    }
+
+    /**
+     * It replaces a range of lines and parses the new ones. If the new lines open or close a block comment, the lines
+     * after them are parsed again until one starts in the same comment state as before.
+     *
+     * @param first The index of the first replaced line.
+     * @param removed The amount of replaced lines.
+     * @param inserted The new lines.
+     */
+    public synchronized void replaceLines(int first, int removed, String[] inserted) {
+        lines.subList(first, first + removed).clear();
+
+        List<ModelLine> parsed = new ArrayList<>(inserted.length);
+        boolean inBlockComment = first > 0 && lines.get(first - 1).commentAtEnd();
+
+        for (int i = 0; i < inserted.length; i++) {
+            ModelLine line = parse(inserted[i], first + i, inBlockComment);
+            parsed.add(line);
+            inBlockComment = line.commentAtEnd();
+        }
+
+        lines.addAll(first, parsed);
+
+        for (int i = first + inserted.length; i < lines.size(); i++) {
+            ModelLine line = lines.get(i);
+
+            if (line.commentAtStart() == inBlockComment)
+                break;
+
+            line = parse(line.text(), i, inBlockComment);
+            lines.set(i, line);
+            inBlockComment = line.commentAtEnd();
+        }
+
+        this.gCode = null;
+    }
+
+    private ModelLine parse(String text, int index, boolean inBlockComment) {
+        lexer.startLine(text, index, inBlockComment);
+        buffer.clear();
+
+        try {
+            GCodeParser.parseLine(lexer, buffer);
+            return new ModelLine(text, inBlockComment, lexer.isInBlockComment(),
+                    buffer.isEmpty() ? NO_INSTRUCTIONS : buffer.toArray(NO_INSTRUCTIONS), null);
+        } catch (GCodeConstructError e) {
+            lexer.finishLine();
+            return new ModelLine(text, inBlockComment, lexer.isInBlockComment(), NO_INSTRUCTIONS, e);
+        }
+    }
+
+    /**
+     * It links the parsed lines into a program, no line is parsed again. The program is kept until the next edit, so
+     * every simulation of the same text shares it and its compiled instructions
+     *
+     * @return The current program.
+     */
+    public synchronized GCode toGCode() {
+        if (gCode != null)
+            return gCode;
+
+        String[] source = new String[lines.size()];
+        GCodeCompiler compiler = new GCodeCompiler(lines.size());
+        List<GCodeInstruction> instructions = null;
+        GCodeConstructError error = null;
+
+        for (int i = 0; i < source.length; i++)
+            source[i] = lines.get(i).text();
+
+        try {
+            for (int i = 0; i < source.length; i++) {
+                ModelLine line = lines.get(i);
+
+                if (line.error() != null)
+                    throw line.error().atLine(i + 1);
+
+                GCodeInstruction[] lineInstructions = line.instructions();
+
+                for (int j = 0; j < lineInstructions.length; j++) {
+                    if (lineInstructions[j].line() != i + 1)
+                        lineInstructions[j] = lineInstructions[j].withLine(i + 1);
+
+                    compiler.link(lineInstructions[j]);
+                }
+            }
+
+            instructions = compiler.finish();
+        } catch (GCodeConstructError e) {
+            error = e;
+        }
+
+        this.gCode = new GCode(source, instructions, error);
+        return gCode;
+    }
+
+    public synchronized int getLineCount() {
+        return lines.size();
+    }
+
+    /**
+     * @param text The text of the line.
+     * @param commentAtStart If the line starts inside of a block comment.
+     * @param commentAtEnd If a block comment is still open at the end of the line.
+     * @param instructions The parsed instructions, their line is moved when the program is linked.
+     * @param error The error of the line, or null if it could be parsed.
+     */
+    private record ModelLine(String text,
+                             boolean commentAtStart,
+                             boolean commentAtEnd,
+                             GCodeInstruction[] instructions,
+                             GCodeConstructError error) {
+    }
+}
@@ -0,0 +1,62 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.gcode;
+
+public enum GCodeOpcode {
+    /**
+     * G0, the motor turns by the degree with a constant speed.
+     */
+    MOVE_DEFAULT(0),
+    /**
+     * G1, the motor accelerates with W over the distance T.
+     */
+    MOVE_EXPO(1),
+    /**
+     * G2, the motor accelerates and brakes with a constant acceleration during the ramps T at both ends.
+     */
+    MOVE_TRAPEZOID(2),
+    /**
+     * G3, like G2, but the acceleration itself ramps up and down with a constant jerk.
+     */
+    MOVE_S_CURVE(3),
+    /**
+     * G8, the lines until the next G9 run at the same time.
+     */
+    SEQUENCE_BEGIN(8),
+    SEQUENCE_END(9),
+    /**
+     * G10, the lines until the next G11 are repeated N times. The body is compiled once.
+     */
+    REPEAT_BEGIN(10),
+    REPEAT_END(11),
+    /**
+     * G54, the start angle of the motor. The compiler creates one instruction per motor of the line.
+     */
+    OFFSET(54);
+
+    private final int code;
+
+    GCodeOpcode(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * @param code The number of the G word.
+     * @return The opcode of the number, or null if there is none.
+     */
+    public static GCodeOpcode fromCode(int code) {
+        for (GCodeOpcode opcode : values()) {
+            if (opcode.code == code)
+                return opcode;
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.gcode;
+
+import java.util.List;
+
+public class GCodeParser {
+
+    private final GCodeLexer lexer;
+    private final List<GCodeInstruction> instructions;
+
+    private GCodeParser(GCodeLexer lexer, List<GCodeInstruction> instructions) {
+        this.lexer = lexer;
+        this.instructions = instructions;
+    }
+
+    /**
+     * It parses the current line of the lexer into instructions. A line only depends on its own text, so it can be
+     * parsed again on its own after an edit. Everything which depends on the lines around it, like the D of a G8, is
+     * resolved later by the compiler, a move without D has a duration of -1 until then.
+     *
+     * @param lexer The lexer at the beginning of a line.
+     * @param instructions The list the instructions of the line are added to.
+     * @throws GCodeConstructError If the line is invalid.
+     */
+    public static void parseLine(GCodeLexer lexer, List<GCodeInstruction> instructions) throws GCodeConstructError {
+        if (lexer.nextWord())
+            new GCodeParser(lexer, instructions).parseCommand();
+    }
+
+    private void parseCommand() throws GCodeConstructError {
+        if (lexer.getLetter() != 'G')
+            throw lexer.error("expected a G word, found '" + lexer.getLetter() + "'");
+
+        int line = lexer.getLine();
+        int column = lexer.getColumn();
+        double code = lexer.getValue();
+        GCodeOpcode opcode = code == (int) code ? GCodeOpcode.fromCode((int) code) : null;
+
+        if (opcode == null)
+            throw lexer.error("unknown command G" + format(code));
+
+        switch (opcode) {
+            case OFFSET -> parseOffset(line);
+            case SEQUENCE_BEGIN -> parseSequenceBegin(line, column);
+            case SEQUENCE_END, REPEAT_END -> parseEnd(opcode, line, column);
+            case REPEAT_BEGIN -> parseRepeatBegin(line, column);
+            default -> parseMove(opcode, line, column);
+        }
+    }
+
+    private void parseOffset(int line) throws GCodeConstructError {
+        int motors = 0;
+
+        while (lexer.nextWord()) {
+            Motor motor = Motor.fromChar(lexer.getLetter());
+
+            if (motor == null)
+                throw unexpectedWord("G54");
+
+            if ((motors & (1 << motor.ordinal())) != 0)
+                throw lexer.error("motor " + motor + " is set twice");
+
+            motors |= 1 << motor.ordinal();
+            instructions.add(new GCodeInstruction(GCodeOpcode.OFFSET, motor, lexer.getValue(), 0, 0, 0, 0,
+                    line, lexer.getColumn()));
+        }
+    }
+
+    private void parseSequenceBegin(int line, int column) throws GCodeConstructError {
+        long duration = -1;
+
+        while (lexer.nextWord()) {
+            if (lexer.getLetter() != 'D')
+                throw unexpectedWord("G8");
+
+            duration = readDuration();
+        }
+
+        instructions.add(new GCodeInstruction(GCodeOpcode.SEQUENCE_BEGIN, null, 0, duration, 0, 0, 0, line, column));
+    }
+
+    private void parseRepeatBegin(int line, int column) throws GCodeConstructError {
+        long count = -1;
+
+        while (lexer.nextWord()) {
+            double value = lexer.getValue();
+
+            if (lexer.getLetter() != 'N')
+                throw unexpectedWord("G10");
+
+            if (value < 1 || value != Math.rint(value) || value > Long.MAX_VALUE)
+                throw lexer.error("the count N has to be a whole number of at least 1");
+
+            count = (long) value;
+        }
+
+        if (count < 0)
+            throw new GCodeConstructError("G10 needs a count N", line, column);
+
+        instructions.add(new GCodeInstruction(GCodeOpcode.REPEAT_BEGIN, null, 0, 0, 0, 0, count, line, column));
+    }
+
+    private void parseEnd(GCodeOpcode opcode, int line, int column) throws GCodeConstructError {
+        if (lexer.nextWord())
+            throw unexpectedWord("G" + opcode.getCode());
+
+        instructions.add(new GCodeInstruction(opcode, null, 0, 0, 0, 0, 0, line, column));
+    }
+
+    private void parseMove(GCodeOpcode opcode, int line, int column) throws GCodeConstructError {
+        String name = "G" + opcode.getCode();
+        Motor motor = null;
+        double degree = 0;
+        long duration = -1;
+        double acceleration = Double.NaN;
+        double accelerationDist = Double.NaN;
+
+        while (lexer.nextWord()) {
+            char letter = lexer.getLetter();
+            Motor wordMotor = Motor.fromChar(letter);
+
+            if (wordMotor != null) {
+                if (motor != null)
+                    throw lexer.error(name + " can only drive one motor");
+
+                motor = wordMotor;
+                degree = lexer.getValue();
+            } else if (letter == 'D') {
+                duration = readDuration();
+            } else if (letter == 'W' && opcode == GCodeOpcode.MOVE_EXPO) {
+                acceleration = lexer.getValue();
+            } else if (letter == 'T' && opcode != GCodeOpcode.MOVE_DEFAULT) {
+                accelerationDist = lexer.getValue();
+            } else {
+                throw unexpectedWord(name);
+            }
+        }
+
+        if (motor == null)
+            throw new GCodeConstructError(name + " needs a motor A, B or M", line, column);
+
+        if (opcode == GCodeOpcode.MOVE_EXPO) {
+            if (Double.isNaN(acceleration) || Double.isNaN(accelerationDist))
+                throw new GCodeConstructError(name + " needs an acceleration W and a distance T", line, column);
+
+            if (accelerationDist <= 0)
+                throw new GCodeConstructError("the distance T has to be positive", line, column);
+        } else if (opcode == GCodeOpcode.MOVE_TRAPEZOID || opcode == GCodeOpcode.MOVE_S_CURVE) {
+            if (Double.isNaN(accelerationDist))
+                throw new GCodeConstructError(name + " needs a ramp duration T", line, column);
+        }
+
+        instructions.add(new GCodeInstruction(opcode, motor, degree, duration,
+                Double.isNaN(acceleration) ? 0 : acceleration,
+                Double.isNaN(accelerationDist) ? 0 : accelerationDist,
+                0, line, column));
+    }
+
+    private long readDuration() throws GCodeConstructError {
+        double value = lexer.getValue();
+
+        if (value < 0 || value != Math.rint(value) || value > Long.MAX_VALUE)
+            throw lexer.error("the duration D has to be a whole number of at least 0");
+
+        return (long) value;
+    }
+
+    private GCodeConstructError unexpectedWord(String command) {
+        return lexer.error("unexpected word '" + lexer.getLetter() + format(lexer.getValue()) + "' in " + command);
+    }
+
+    private static String format(double value) {
+        return value == (long) value ? Long.toString((long) value) : Double.toString(value);
+    }
+}
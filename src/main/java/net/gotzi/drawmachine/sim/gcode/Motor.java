@@ -13,4 +13,17 @@ public enum Motor {
     public char toChar() {
         return this.name().charAt(0);
     }
+
+    /**
+     * @param c The letter of a G-code word.
+     * @return The motor of the letter, or null if the letter doesn't name a motor.
+     */
+    public static Motor fromChar(char c) {
+        return switch (c) {
+            case 'A' -> A;
+            case 'B' -> B;
+            case 'M' -> M;
+            default -> null;
+        };
+    }
 }
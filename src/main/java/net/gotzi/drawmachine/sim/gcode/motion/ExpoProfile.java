@@ -0,0 +1,27 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.gcode.motion;
+
+/**
+ * The motor accelerates uniformly from rest, the angle grows with the square of the time.
+ *
+ * @param coefficient The factor of the squared time, half of the acceleration.
+ */
+public record ExpoProfile(double coefficient) implements MotionProfile {
+
+    /**
+     * @param acceleration The W parameter of the line.
+     * @param accelerationDist The T parameter of the line, at this time the motor has turned by half of W.
+     */
+    public static ExpoProfile of(double acceleration, double accelerationDist) {
+        return new ExpoProfile(acceleration / (2.0 * accelerationDist * accelerationDist));
+    }
+
+    @Override
+    public double getDegree(double time) {
+        return coefficient * time * time;
+    }
+}
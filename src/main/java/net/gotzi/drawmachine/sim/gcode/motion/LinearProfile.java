@@ -0,0 +1,27 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.gcode.motion;
+
+/**
+ * The motor turns with a constant speed.
+ *
+ * @param speed The degrees per unit of native time.
+ */
+public record LinearProfile(double speed) implements MotionProfile {
+
+    /**
+     * @param degree The degree the motor turns.
+     * @param duration The time it takes, a line without duration doesn't move.
+     */
+    public static LinearProfile of(double degree, long duration) {
+        return new LinearProfile(duration == 0 ? 0 : degree / (double) duration);
+    }
+
+    @Override
+    public double getDegree(double time) {
+        return speed * time;
+    }
+}
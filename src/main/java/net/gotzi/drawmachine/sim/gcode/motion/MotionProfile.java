@@ -0,0 +1,20 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.gcode.motion;
+
+/**
+ * The closed form angle function of a line. Its coefficients are calculated once when the line is compiled, so the
+ * timeline only has to evaluate it and never walks the program.
+ */
+@FunctionalInterface
+public interface MotionProfile {
+
+    /**
+     * @param time The time since the start of the line, between 0 and its duration.
+     * @return The angle the motor has turned since the start of the line, in degrees.
+     */
+    double getDegree(double time);
+}
@@ -0,0 +1,61 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.gcode.motion;
+
+/**
+ * The motor ramps its acceleration up and down again with a constant jerk, cruises and brakes the same way, so the
+ * speed follows an S-curve on both ends. Like the trapezoid both ramps take the same time.
+ *
+ * @param degree The angle at the end of the line.
+ * @param duration The duration of the line.
+ * @param ramp The duration of one ramp.
+ * @param halfRamp Half of the ramp, the acceleration is the highest there.
+ * @param speed The cruise speed in degrees per unit of native time.
+ * @param jerk A sixth of the jerk, the factor of the cubed time on the ramps.
+ */
+public record SCurveProfile(double degree, double duration, double ramp, double halfRamp, double speed, double jerk)
+        implements MotionProfile {
+
+    /**
+     * It calculates the phases of the profile. A ramp is point symmetric around its middle, so it also covers half of
+     * the distance the motor would cruise in the same time and the cruise speed is degree / (duration - ramp)
+     *
+     * @param degree The angle the motor turns.
+     * @param duration The duration of the line, it has to be larger than 0.
+     * @param ramp The duration of one ramp, at most half of the duration.
+     */
+    public static SCurveProfile of(double degree, long duration, double ramp) {
+        double speed = degree / (duration - ramp);
+        double jerk = ramp == 0 ? 0 : 4 * speed / (ramp * ramp) / 6;
+
+        return new SCurveProfile(degree, duration, ramp, ramp / 2, speed, jerk);
+    }
+
+    @Override
+    public double getDegree(double time) {
+        if (time < ramp)
+            return accelerate(time);
+
+        double brake = duration - time;
+
+        if (brake < ramp)
+            return degree - accelerate(brake);
+
+        return speed * (time - halfRamp);
+    }
+
+    /**
+     * The angle after the time on the acceleration ramp. The first half is the cubic start, the second half mirrors
+     * it at the cruise line.
+     */
+    private double accelerate(double time) {
+        if (time <= halfRamp)
+            return jerk * time * time * time;
+
+        double rest = ramp - time;
+        return speed * (time - halfRamp) + jerk * rest * rest * rest;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.gcode.motion;
+
+/**
+ * The motor accelerates with a constant acceleration, cruises and brakes again, so its speed follows a trapezoid.
+ * Both ramps take the same time.
+ *
+ * @param degree The angle at the end of the line.
+ * @param duration The duration of the line.
+ * @param ramp The duration of one ramp.
+ * @param speed The cruise speed in degrees per unit of native time.
+ * @param halfAcceleration Half of the acceleration, the factor of the squared time on the ramps.
+ */
+public record TrapezoidProfile(double degree, double duration, double ramp, double speed, double halfAcceleration)
+        implements MotionProfile {
+
+    /**
+     * It calculates the phases of the profile. The ramps cover half of the distance the motor would cruise in the
+     * same time, so the cruise speed is degree / (duration - ramp)
+     *
+     * @param degree The angle the motor turns.
+     * @param duration The duration of the line, it has to be larger than 0.
+     * @param ramp The duration of one ramp, at most half of the duration.
+     */
+    public static TrapezoidProfile of(double degree, long duration, double ramp) {
+        double speed = degree / (duration - ramp);
+        double halfAcceleration = ramp == 0 ? 0 : speed / (2 * ramp);
+
+        return new TrapezoidProfile(degree, duration, ramp, speed, halfAcceleration);
+    }
+
+    @Override
+    public double getDegree(double time) {
+        if (time < ramp)
+            return halfAcceleration * time * time;
+
+        double brake = duration - time;
+
+        if (brake < ramp)
+            return degree - halfAcceleration * brake * brake;
+
+        return speed * (time - ramp / 2);
+    }
+}
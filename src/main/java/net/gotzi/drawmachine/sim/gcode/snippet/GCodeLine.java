@@ -5,24 +5,20 @@
 
 package net.gotzi.drawmachine.sim.gcode.snippet;
 
-import net.gotzi.drawmachine.sim.gcode.GCodeConstructError;
+import net.gotzi.drawmachine.sim.gcode.GCodeInstruction;
 import net.gotzi.drawmachine.sim.gcode.Motor;
+import net.gotzi.drawmachine.sim.gcode.motion.MotionProfile;
 
 public abstract class GCodeLine implements GCodeSnippet {
 
-    private final boolean inSequence;
+    protected final long duration;
+    protected final double degree;
+    private final Motor motor;
 
-    protected long duration;
-    protected double degree;
-    private Motor motor;
-
-    public GCodeLine(String str, boolean inSequence) throws GCodeConstructError {
-        this.inSequence = inSequence;
-
-
-        String[] commands = str.trim().split(" ");
-        this.constructGCodeLineFromStr(commands);
-        this.constructExtraInfo(commands);
+    public GCodeLine(GCodeInstruction instruction) {
+        this.motor = instruction.motor();
+        this.degree = instruction.degree();
+        this.duration = instruction.duration();
     }
 
     public double getDegree() {
@@ -43,29 +39,16 @@ public abstract class GCodeLine implements GCodeSnippet {
         return "";
     }
 
-    private void constructGCodeLineFromStr(String[] commandSplit) throws GCodeConstructError {
-
-        this.motor = Motor.valueOf(String.valueOf(commandSplit[1].charAt(0)));
-        this.degree = Double.parseDouble(commandSplit[1].substring(1));
-
-        long duration = Long.parseLong(commandSplit[findValueIndex(commandSplit, 'D')].substring(1));
-
-        if (duration == -1 && !inSequence)
-            throw new GCodeConstructError();
-
-        this.duration = duration;
+    /**
+     * @param timestamp The time since the start of the line.
+     * @return The angle the motor has turned since the start of the line.
+     */
+    public double calculateDegree(double timestamp) {
+        return getProfile().getDegree(timestamp);
     }
 
-    public abstract double calculateDegree(double timestamp);
-
-    public abstract void constructExtraInfo(String[] commands);
-
-    protected int findValueIndex(String[] commandSplit, char cmd) {
-        for (int i = 0; i < commandSplit.length; i++) {
-            if (commandSplit[i].charAt(0) == cmd)
-                return i;
-        }
-
-        return -1;
-    }
-}
\ No newline at end of file
+    /**
+     * @return The angle function of the line, it is created once by the constructor of the line.
+     */
+    public abstract MotionProfile getProfile();
+}
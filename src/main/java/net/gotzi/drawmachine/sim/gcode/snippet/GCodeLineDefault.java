@@ -5,20 +5,21 @@
 
 package net.gotzi.drawmachine.sim.gcode.snippet;
 
-import net.gotzi.drawmachine.sim.gcode.GCodeConstructError;
+import net.gotzi.drawmachine.sim.gcode.GCodeInstruction;
+import net.gotzi.drawmachine.sim.gcode.motion.LinearProfile;
+import net.gotzi.drawmachine.sim.gcode.motion.MotionProfile;
 
 public class GCodeLineDefault extends GCodeLine {
 
-    public GCodeLineDefault(String str, boolean inSequence) throws GCodeConstructError {
-        super(str, inSequence);
-    }
+    private final LinearProfile profile;
 
-    public double calculateDegree(double timestamp) {
-        return this.degree/(double)this.duration * timestamp;
+    public GCodeLineDefault(GCodeInstruction instruction) {
+        super(instruction);
+        this.profile = LinearProfile.of(degree, duration);
     }
 
     @Override
-    public void constructExtraInfo(String[] commands) {
-
+    public MotionProfile getProfile() {
+        return profile;
     }
 }
@@ -5,27 +5,21 @@
 
 package net.gotzi.drawmachine.sim.gcode.snippet;
 
-import net.gotzi.drawmachine.sim.gcode.GCodeConstructError;
+import net.gotzi.drawmachine.sim.gcode.GCodeInstruction;
+import net.gotzi.drawmachine.sim.gcode.motion.ExpoProfile;
+import net.gotzi.drawmachine.sim.gcode.motion.MotionProfile;
 
 public class GCodeLineExpo extends GCodeLine {
 
-    private double acceleration;
-    private double accelerationDist;
+    private final ExpoProfile profile;
 
-    public GCodeLineExpo(String str, boolean inSequence) throws GCodeConstructError {
-        super(str, inSequence);
+    public GCodeLineExpo(GCodeInstruction instruction) {
+        super(instruction);
+        this.profile = ExpoProfile.of(instruction.acceleration(), instruction.accelerationDist());
     }
 
     @Override
-    public void constructExtraInfo(String[] commands) {
-        int index = findValueIndex(commands, 'W');
-        this.acceleration = Double.parseDouble(commands[index].substring(1));
-        index = findValueIndex(commands, 'T');
-        this.accelerationDist = Double.parseDouble(commands[index].substring(1));
+    public MotionProfile getProfile() {
+        return profile;
     }
-
-    @Override
-    public double calculateDegree(double timestamp) {
-        return acceleration * Math.pow(timestamp/accelerationDist, 2) / 2.0;
-    }
-}
\ No newline at end of file
+}
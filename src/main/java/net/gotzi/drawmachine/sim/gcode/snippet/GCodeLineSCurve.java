@@ -0,0 +1,25 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.gcode.snippet;
+
+import net.gotzi.drawmachine.sim.gcode.GCodeInstruction;
+import net.gotzi.drawmachine.sim.gcode.motion.MotionProfile;
+import net.gotzi.drawmachine.sim.gcode.motion.SCurveProfile;
+
+public class GCodeLineSCurve extends GCodeLine {
+
+    private final SCurveProfile profile;
+
+    public GCodeLineSCurve(GCodeInstruction instruction) {
+        super(instruction);
+        this.profile = SCurveProfile.of(degree, duration, instruction.accelerationDist());
+    }
+
+    @Override
+    public MotionProfile getProfile() {
+        return profile;
+    }
+}
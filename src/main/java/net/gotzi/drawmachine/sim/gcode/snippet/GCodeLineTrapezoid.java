@@ -0,0 +1,25 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.gcode.snippet;
+
+import net.gotzi.drawmachine.sim.gcode.GCodeInstruction;
+import net.gotzi.drawmachine.sim.gcode.motion.MotionProfile;
+import net.gotzi.drawmachine.sim.gcode.motion.TrapezoidProfile;
+
+public class GCodeLineTrapezoid extends GCodeLine {
+
+    private final TrapezoidProfile profile;
+
+    public GCodeLineTrapezoid(GCodeInstruction instruction) {
+        super(instruction);
+        this.profile = TrapezoidProfile.of(degree, duration, instruction.accelerationDist());
+    }
+
+    @Override
+    public MotionProfile getProfile() {
+        return profile;
+    }
+}
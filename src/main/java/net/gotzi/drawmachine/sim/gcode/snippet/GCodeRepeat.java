@@ -0,0 +1,58 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.gcode.snippet;
+
+import java.util.List;
+
+public class GCodeRepeat implements GCodeSnippet {
+    private final List<GCodeSnippet> snippets;
+    private final long count;
+    private final long period;
+    private final long duration;
+
+    /**
+     * @param snippets The body of the block, it is kept once and not unrolled.
+     * @param count How often the body runs.
+     * @throws ArithmeticException If the duration of the block overflows, the compiler reports such a block.
+     */
+    public GCodeRepeat(List<GCodeSnippet> snippets, long count) {
+        this.snippets = snippets;
+        this.count = count;
+
+        long period = 0;
+
+        for (GCodeSnippet snippet : snippets)
+            period = Math.addExact(period, snippet.getDuration());
+
+        this.period = period;
+        this.duration = Math.multiplyExact(period, count);
+    }
+
+    /**
+     * @return The duration of one run of the body.
+     */
+    public long getPeriod() {
+        return period;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public List<GCodeSnippet> getSnippets() {
+        return snippets;
+    }
+
+    @Override
+    public long getDuration() {
+        return duration;
+    }
+
+    @Override
+    public String getSnippetInfo() {
+        return "";
+    }
+}
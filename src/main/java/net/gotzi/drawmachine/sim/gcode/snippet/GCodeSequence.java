@@ -9,14 +9,18 @@ public class GCodeSequence implements GCodeSnippet {
     private final GCodeLine[] lines;
     private final long duration;
 
-    public GCodeSequence(GCodeLine[] lines, String str) {
+    /**
+     * @param lines The lines which run at the same time.
+     * @param defaultDuration The D of the G8, or -1 if it has none. The sequence lasts at least as long as its
+     *                        longest line.
+     */
+    public GCodeSequence(GCodeLine[] lines, long defaultDuration) {
         this.lines = lines;
-        this.duration = computeHighestDuration(findDurationCommandSplit(str.split(" ")));
-        System.out.println("Duration: " + duration);
+        this.duration = computeHighestDuration(defaultDuration);
     }
 
-    private long computeHighestDuration(int defaultDuration) {
-        long max = defaultDuration;
+    private long computeHighestDuration(long defaultDuration) {
+        long max = Math.max(0, defaultDuration);
 
         for (GCodeLine line : this.lines) {
             if ( line != null && line.getDuration() > max)
@@ -27,15 +31,6 @@ public class GCodeSequence implements GCodeSnippet {
         return max;
     }
 
-    private int findDurationCommandSplit(String[] commandSplit) {
-        for (int i = 0; i < commandSplit.length; i++) {
-            if (commandSplit[i].charAt(0) == 'D')
-                return i;
-        }
-
-        return -1;
-    }
-
     @Override
     public long getDuration() {
         return duration;
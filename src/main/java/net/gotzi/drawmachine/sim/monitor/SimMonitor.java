@@ -6,6 +6,8 @@
 package net.gotzi.drawmachine.sim.monitor;
 
 import net.gotzi.drawmachine.api.sim.SimRenderState;
+import net.gotzi.drawmachine.sim.Precision;
+import net.gotzi.drawmachine.sim.StrokeMode;
 
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -15,6 +17,9 @@ public interface SimMonitor {
     AtomicInteger getSimulationSteps();
     void updateProgress(int progress);
     boolean isFastMode();
+    StrokeMode getStrokeMode();
+    double getSegmentLength();
+    Precision getPrecision();
     void updateState(SimRenderState simRenderState);
 
 }
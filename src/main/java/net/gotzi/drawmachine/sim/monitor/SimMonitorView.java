@@ -10,7 +10,10 @@ import net.gotzi.drawmachine.api.sim.SimRenderState;
 import net.gotzi.drawmachine.handler.MouseCursorHandler;
 import net.gotzi.drawmachine.error.UnsupportedValue;
 import net.gotzi.drawmachine.handler.design.DesignHandler;
+import net.gotzi.drawmachine.sim.Precision;
+import net.gotzi.drawmachine.sim.RenderProgress;
 import net.gotzi.drawmachine.sim.Simulation;
+import net.gotzi.drawmachine.sim.StrokeMode;
 
 import javax.swing.*;
 import javax.swing.event.ChangeEvent;
@@ -26,6 +29,8 @@ public class SimMonitorView implements SimMonitor {
     private final Simulation simulation;
     private final String maxAllowedStepsStr =
             DrawMachineSim.getInstance().getConfig().get("max_simulation_steps");
+    private final String segmentLengthStr =
+            DrawMachineSim.getInstance().getConfig().get("adaptive_segment_length");
 
     private JPanel view;
     private JSlider simSpeedSlider;
@@ -39,8 +44,13 @@ public class SimMonitorView implements SimMonitor {
     private JButton resetCanvasButton;
     private JButton resetViewButton;
     private JCheckBox fastMode;
+    private JComboBox<StrokeMode> strokeModeBox;
+    private JCheckBox adaptiveSteps;
+    private JCheckBox approximateMath;
     private final AtomicInteger atomicSimSpeed;
     private final AtomicInteger atomicAccuracyFactor;
+    private final Timer progressTimer;
+    private int rendersBeforeRun;
 
     public SimMonitorView(Simulation simulation) {
         this.simulation = simulation;
@@ -65,11 +75,20 @@ public class SimMonitorView implements SimMonitor {
 
         simAccuracySpinner.setValue(100);
 
+        strokeModeBox.setModel(new DefaultComboBoxModel<>(StrokeMode.values()));
+        strokeModeBox.setSelectedItem(StrokeMode.DOTS);
+
         atomicAccuracyFactor.set(100);
 
         progressBar.setMinimum(0);
         progressBar.setValue(0);
         progressBar.setMaximum(100);
+        progressBar.setStringPainted(true);
+
+        int progressRefreshRate = Integer.parseInt(
+                DrawMachineSim.getInstance().getConfig().get("progress_refresh_rate"));
+        this.progressTimer = new Timer(1000 / progressRefreshRate, this::sampleProgress);
+        this.progressTimer.setCoalesce(true);
 
         addListeners();
 
@@ -93,6 +112,9 @@ public class SimMonitorView implements SimMonitor {
         resetCanvasButton.addMouseListener(new MouseCursorHandler(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR)));
 
         fastMode.addMouseListener(new MouseCursorHandler(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR)));
+        adaptiveSteps.addMouseListener(new MouseCursorHandler(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR)));
+        approximateMath.addMouseListener(new MouseCursorHandler(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR)));
+        strokeModeBox.addMouseListener(new MouseCursorHandler(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR)));
 
         simAccuracySpinner.addChangeListener(this::updateSimSteps);
     }
@@ -100,11 +122,40 @@ public class SimMonitorView implements SimMonitor {
     @Override
     public void updateProgress(int progress) {
         this.progressBar.setValue(progress);
+        this.progressBar.setString(progress + "%");
+    }
+
+    /**
+     * It samples the progress of the render at the configured rate and shows the percentage, the samples per second
+     * and the estimated remaining time. The timer stops after the simulation was stopped, or after the render which
+     * was started by run has finished, its last tick shows 100%.
+     */
+    private void sampleProgress(ActionEvent ignored) {
+        RenderProgress progress = this.simulation.getProgress();
+
+        if (!this.simulation.isRunning()) {
+            this.progressTimer.stop();
+            return;
+        }
+
+        if (!progress.isRunning() && progress.getRenders() != rendersBeforeRun) {
+            this.progressTimer.stop();
+            this.progressBar.setValue(100);
+            this.progressBar.setString("100%");
+            return;
+        }
+
+        int percent = (int) (progress.getFraction() * 100);
+        long eta = progress.getEtaMillis();
+
+        this.progressBar.setValue(percent);
+        this.progressBar.setString(String.format("%d%% | %.1fk/s | ETA %s",
+                percent, progress.getSamplesPerSecond() / 1000, eta < 0 ? "-" : (eta / 1000) + "s"));
     }
 
     @Override
     public void updateState(SimRenderState state) {
-        int progress = (int) ((float)state.timestamp()/(float) state.time() * 100);
+        int progress = state.time() <= 0 ? 0 : (int) ((double) state.timestamp() / state.time() * 100);
         updateProgress(progress);
     }
 
@@ -123,15 +174,31 @@ public class SimMonitorView implements SimMonitor {
         return fastMode.isSelected();
     }
 
+    @Override
+    public StrokeMode getStrokeMode() {
+        return (StrokeMode) strokeModeBox.getSelectedItem();
+    }
+
+    @Override
+    public double getSegmentLength() {
+        return adaptiveSteps.isSelected() ? Double.parseDouble(segmentLengthStr) : 0;
+    }
+
+    @Override
+    public Precision getPrecision() {
+        return approximateMath.isSelected() ? Precision.APPROXIMATE : Precision.EXACT;
+    }
+
     private void updateSimSteps(ChangeEvent ignored) {
         NumberFormat nf = DecimalFormat.getInstance(new Locale("en", "US"));
+        int maxAllowedSteps = Integer.parseInt(maxAllowedStepsStr);
         int value;
 
         try {
             value = Integer.parseInt(simAccuracySpinner.getValue().toString());
-            if (1000000 < value) {
+            if (maxAllowedSteps < value) {
                 simAccuracySpinner.setValue(100);
-                new UnsupportedValue(DrawMachineSim.getInstance().getWindow(), "Value is too high Max: " + nf.format(100));
+                new UnsupportedValue(DrawMachineSim.getInstance().getWindow(), "Value is too high Max: " + nf.format(maxAllowedSteps));
                 return;
             } else if (value < 1) {
                 simAccuracySpinner.setValue(1);
@@ -155,7 +222,9 @@ public class SimMonitorView implements SimMonitor {
 
     private void run(ActionEvent actionEvent) {
         if (this.simulation.isRunning()) return;
+        this.rendersBeforeRun = this.simulation.getProgress().getRenders();
         this.simulation.run();
+        this.progressTimer.start();
     }
 
     private void stop(ActionEvent actionEvent) {
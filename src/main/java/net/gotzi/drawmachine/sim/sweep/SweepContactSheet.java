@@ -0,0 +1,65 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.sweep;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Locale;
+
+public class SweepContactSheet {
+
+    private static final int PADDING = 4;
+    private static final int LABEL_HEIGHT = 14;
+
+    /**
+     * It lays out the thumbnails of all results in a grid, under every thumbnail the swept values, the travel distance
+     * and the out of canvas count are written.
+     *
+     * @param ranges The ranges of the sweep.
+     * @param results The results in the order of the combinations.
+     * @return The contact sheet.
+     */
+    public static BufferedImage create(List<SweepRange> ranges, List<SweepResult> results) {
+        int thumbnailSize = results.isEmpty() ? 0 : results.get(0).thumbnail().getWidth();
+        int columns = Math.max(1, (int) Math.ceil(Math.sqrt(results.size())));
+        int rows = Math.max(1, (results.size() + columns - 1) / columns);
+        int lines = ranges.size() + 1;
+
+        int cellWidth = thumbnailSize + PADDING;
+        int cellHeight = thumbnailSize + lines * LABEL_HEIGHT + PADDING;
+
+        BufferedImage sheet = new BufferedImage(columns * cellWidth + PADDING, rows * cellHeight + PADDING,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = sheet.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        graphics.setColor(Color.LIGHT_GRAY);
+        graphics.fillRect(0, 0, sheet.getWidth(), sheet.getHeight());
+        graphics.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
+
+        for (int i = 0; i < results.size(); i++) {
+            SweepResult result = results.get(i);
+            int x = PADDING + (i % columns) * cellWidth;
+            int y = PADDING + (i / columns) * cellHeight;
+
+            graphics.drawImage(result.thumbnail(), x, y, null);
+            graphics.setColor(result.outOfCanvas() == 0 ? Color.BLACK : Color.RED.darker());
+
+            int labelY = y + thumbnailSize + LABEL_HEIGHT - 3;
+            for (int j = 0; j < ranges.size(); j++) {
+                graphics.drawString(String.format(Locale.ROOT, "%s=%.2f",
+                        ranges.get(j).parameter().getKey(), result.parameterValues()[j]), x, labelY);
+                labelY += LABEL_HEIGHT;
+            }
+
+            graphics.drawString(String.format(Locale.ROOT, "T %.0f | Out %d",
+                    result.travelDistance(), result.outOfCanvas()), x, labelY);
+        }
+
+        graphics.dispose();
+        return sheet;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.sweep;
+
+import net.gotzi.drawmachine.api.sim.SimEditorValues;
+import net.gotzi.drawmachine.api.sim.SimPoint;
+
+public enum SweepParameter {
+    MIDDLE_X("middleX"),
+    MIDDLE_Y("middleY"),
+    M1_X("m1X"),
+    M1_Y("m1Y"),
+    M2_X("m2X"),
+    M2_Y("m2Y"),
+    M1_HORN("m1Horn"),
+    M2_HORN("m2Horn"),
+    MAIN_POLE("mainPole"),
+    SUPPORT_POLE("supportPole"),
+    INTERSECTION("intersection");
+
+    private final String key;
+
+    SweepParameter(String key) {
+        this.key = key;
+    }
+
+    /**
+     * It returns a copy of the values with this parameter replaced.
+     *
+     * @param values The values which are copied.
+     * @param value The new value of this parameter.
+     * @return The changed values.
+     */
+    public SimEditorValues apply(SimEditorValues values, double value) {
+        SimPoint middle = values.middlePoint();
+        SimPoint m1 = values.m1Point();
+        SimPoint m2 = values.m2Point();
+        double m1Horn = values.m1Horn();
+        double m2Horn = values.m2Horn();
+        double mainPole = values.mainPole();
+        double supportPole = values.supportPole();
+        double intersection = values.intersection();
+
+        switch (this) {
+            case MIDDLE_X -> middle = new SimPoint(value, middle.y());
+            case MIDDLE_Y -> middle = new SimPoint(middle.x(), value);
+            case M1_X -> m1 = new SimPoint(value, m1.y());
+            case M1_Y -> m1 = new SimPoint(m1.x(), value);
+            case M2_X -> m2 = new SimPoint(value, m2.y());
+            case M2_Y -> m2 = new SimPoint(m2.x(), value);
+            case M1_HORN -> m1Horn = value;
+            case M2_HORN -> m2Horn = value;
+            case MAIN_POLE -> mainPole = value;
+            case SUPPORT_POLE -> supportPole = value;
+            case INTERSECTION -> intersection = value;
+        }
+
+        return new SimEditorValues(middle, m1, m2, m1Horn, m2Horn, mainPole, supportPole, intersection);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public static SweepParameter fromKey(String key) {
+        for (SweepParameter parameter : values()) {
+            if (parameter.key.equals(key))
+                return parameter;
+        }
+
+        throw new IllegalArgumentException("Unknown sweep parameter: " + key);
+    }
+}
@@ -0,0 +1,45 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.sweep;
+
+public record SweepRange(SweepParameter parameter, double from, double to, int steps) {
+
+    public SweepRange {
+        if (steps < 1)
+            throw new IllegalArgumentException("A sweep range needs at least one step");
+    }
+
+    /**
+     * @param step The index of the step, from 0 to steps - 1.
+     * @return The value of the step, the first and the last step are the bounds of the range.
+     */
+    public double valueAt(int step) {
+        if (steps == 1)
+            return from;
+
+        return from + (to - from) * step / (steps - 1);
+    }
+
+    /**
+     * It parses a range in the form key=from:to:steps, for example m1Horn=150:250:5.
+     *
+     * @param str The range as a string.
+     * @return The parsed range.
+     */
+    public static SweepRange parse(String str) {
+        String[] split = str.split("=");
+        String[] bounds = split.length == 2 ? split[1].split(":") : new String[0];
+
+        if (bounds.length != 3)
+            throw new IllegalArgumentException("A sweep range has the form key=from:to:steps, got " + str);
+
+        return new SweepRange(
+                SweepParameter.fromKey(split[0]),
+                Double.parseDouble(bounds[0]),
+                Double.parseDouble(bounds[1]),
+                Integer.parseInt(bounds[2]));
+    }
+}
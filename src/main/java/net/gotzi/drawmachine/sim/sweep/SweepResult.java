@@ -0,0 +1,28 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.sweep;
+
+import net.gotzi.drawmachine.api.sim.SimEditorValues;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * The result of one combination of a sweep.
+ *
+ * @param parameterValues The values of the swept parameters, in the order of the ranges.
+ * @param editorValues The geometry which was rendered.
+ * @param travelDistance The travel distance of the pencil, gaps of invalid points are skipped.
+ * @param outOfCanvas The amount of samples which are outside the paper or which the geometry can't reach.
+ * @param samples The amount of calculated samples.
+ * @param thumbnail The scaled down drawing.
+ */
+public record SweepResult(double[] parameterValues,
+                          SimEditorValues editorValues,
+                          double travelDistance,
+                          long outOfCanvas,
+                          long samples,
+                          BufferedImage thumbnail) {
+}
@@ -0,0 +1,169 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.trace;
+
+import net.gotzi.drawmachine.api.sim.SimValues;
+import net.gotzi.drawmachine.sim.algorithm.PointBuffer;
+import net.gotzi.drawmachine.sim.cache.SimValuesHash;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+public class PointTrace implements Closeable {
+
+    public static final String FILE_EXTENSION = ".dmpt";
+
+    static final int FILE_MAGIC = 0x444D5054;
+    static final int FILE_VERSION = 2;
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /**
+     * magic, version, hash, width, height, step factor and the amount of points.
+     */
+    static final int HEADER_SIZE = 4 + 4 + SimValuesHash.LENGTH + 4 + 4 + 8 + 8;
+    static final int COUNT_OFFSET = HEADER_SIZE - 8;
+    static final int POINT_SIZE = 2 * Float.BYTES;
+
+    /**
+     * The amount of points which are mapped at once, a window stays far below the 2 GB limit of a mapped buffer.
+     */
+    private static final int POINTS_PER_WINDOW = 1 << 24;
+
+    private static final int CHUNK_SIZE = 1 << 13;
+
+    private final FileChannel channel;
+    private final byte[] hash;
+    private final int width;
+    private final int height;
+    private final double stepFactor;
+    private final long size;
+
+    private PointTrace(FileChannel channel, byte[] hash, int width, int height, double stepFactor, long size) {
+        this.channel = channel;
+        this.hash = hash;
+        this.width = width;
+        this.height = height;
+        this.stepFactor = stepFactor;
+        this.size = size;
+    }
+
+    /**
+     * It opens a trace and reads its header, the points are only mapped while they are replayed.
+     *
+     * @param path The trace file.
+     * @return The opened trace, it has to be closed.
+     * @throws IOException If the file can't be read or isn't a complete trace.
+     */
+    public static PointTrace open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(BYTE_ORDER);
+
+            while (header.hasRemaining())
+                if (channel.read(header) < 0)
+                    throw new IOException(path + " is too short for a trace");
+
+            header.flip();
+
+            if (header.getInt() != FILE_MAGIC)
+                throw new IOException(path + " is not a trace");
+            if (header.getInt() != FILE_VERSION)
+                throw new IOException(path + " has an unknown trace version");
+
+            byte[] hash = new byte[SimValuesHash.LENGTH];
+            header.get(hash);
+
+            int width = header.getInt();
+            int height = header.getInt();
+            double stepFactor = header.getDouble();
+            long size = header.getLong();
+
+            if (size < 0 || channel.size() < HEADER_SIZE + size * POINT_SIZE)
+                throw new IOException(path + " is incomplete");
+
+            return new PointTrace(channel, hash, width, height, stepFactor, size);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * It replays the points in the order they were recorded. The file is mapped window by window, so a trace doesn't
+     * have to fit into the heap, only one chunk of points is decoded at a time
+     *
+     * @param consumer It receives the points chunk by chunk, the arrays are reused after it returns.
+     * @throws IOException If the file can't be mapped.
+     */
+    public void forEachChunk(PointBuffer.ChunkConsumer consumer) throws IOException {
+        double[] xs = new double[CHUNK_SIZE];
+        double[] ys = new double[CHUNK_SIZE];
+
+        for (long first = 0; first < size; first += POINTS_PER_WINDOW) {
+            long points = Math.min(POINTS_PER_WINDOW, size - first);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY,
+                    HEADER_SIZE + first * POINT_SIZE, points * POINT_SIZE);
+            FloatBuffer floats = window.order(BYTE_ORDER).asFloatBuffer();
+
+            while (floats.hasRemaining()) {
+                int length = Math.min(CHUNK_SIZE, floats.remaining() / 2);
+
+                for (int i = 0; i < length; i++) {
+                    xs[i] = floats.get();
+                    ys[i] = floats.get();
+                }
+
+                consumer.accept(xs, ys, length);
+            }
+        }
+    }
+
+    /**
+     * @param simValues The values of a program.
+     * @return If the trace was recorded from the same geometry and G-code.
+     */
+    public boolean matches(SimValues simValues) {
+        return Arrays.equals(hash, SimValuesHash.of(simValues));
+    }
+
+    public String getHash() {
+        return HexFormat.of().formatHex(hash);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public double getStepFactor() {
+        return stepFactor;
+    }
+
+    /**
+     * @return The amount of recorded points.
+     */
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
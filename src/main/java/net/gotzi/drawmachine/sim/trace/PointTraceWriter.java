@@ -0,0 +1,170 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.sim.trace;
+
+import net.gotzi.drawmachine.api.sim.SimValues;
+import net.gotzi.drawmachine.sim.algorithm.RenderChunk;
+import net.gotzi.drawmachine.sim.cache.SimValuesHash;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+public class PointTraceWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final Path path;
+    private final Path temporary;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final Map<Long, float[]> pending = new HashMap<>();
+
+    private long next = 0;
+    private long size = 0;
+
+    /**
+     * It starts a trace, the points are written into a temporary file next to the trace, which replaces the trace
+     * when it is closed. A cancelled render doesn't leave a half written trace behind
+     *
+     * @param path The trace file.
+     * @param simValues The values of the program, their hash is stored in the header.
+     * @param width The width of the canvas the points belong to.
+     * @param height The height of the canvas the points belong to.
+     * @param stepFactor The step factor of the render.
+     * @throws IOException If the file can't be created.
+     */
+    public PointTraceWriter(Path path, SimValues simValues, int width, int height, double stepFactor)
+            throws IOException {
+        this.path = path;
+        this.temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        this.channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(PointTrace.BYTE_ORDER);
+
+        buffer.putInt(PointTrace.FILE_MAGIC);
+        buffer.putInt(PointTrace.FILE_VERSION);
+        buffer.put(SimValuesHash.of(simValues));
+        buffer.putInt(width);
+        buffer.putInt(height);
+        buffer.putDouble(stepFactor);
+        buffer.putLong(0);
+    }
+
+    /**
+     * It adds the points of a chunk. The chunks can arrive in any order, a chunk is copied and kept until all chunks
+     * before it have arrived
+     *
+     * @param chunk The plotted chunk, it can be reused after this call.
+     * @throws IOException If the points can't be written.
+     */
+    public synchronized void add(RenderChunk chunk) throws IOException {
+        float[] points = new float[chunk.size() * 2];
+        double[] xs = chunk.getXs();
+        double[] ys = chunk.getYs();
+
+        for (int i = 0; i < chunk.size(); i++) {
+            points[2 * i] = (float) xs[i];
+            points[2 * i + 1] = (float) ys[i];
+        }
+
+        pending.put(chunk.getIndex(), points);
+
+        while ((points = pending.remove(next)) != null) {
+            write(points, points.length / 2);
+            next++;
+        }
+    }
+
+    /**
+     * It adds points in the order they were sampled.
+     *
+     * @param xs The x coordinates.
+     * @param ys The y coordinates.
+     * @param length The amount of points.
+     * @throws IOException If the points can't be written.
+     */
+    public synchronized void add(double[] xs, double[] ys, int length) throws IOException {
+        float[] points = new float[length * 2];
+
+        for (int i = 0; i < length; i++) {
+            points[2 * i] = (float) xs[i];
+            points[2 * i + 1] = (float) ys[i];
+        }
+
+        write(points, length);
+    }
+
+    private void write(float[] points, int length) throws IOException {
+        for (float point : points) {
+            if (!buffer.hasRemaining())
+                flush();
+
+            buffer.putFloat(point);
+        }
+
+        size += length;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+
+        buffer.clear();
+    }
+
+    /**
+     * @return The amount of written points.
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * It writes the remaining points and the amount of points into the header and moves the trace into place. If a
+     * chunk is missing, the trace is incomplete and is discarded instead
+     *
+     * @throws IOException If a chunk is missing or the trace can't be written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!pending.isEmpty()) {
+            discard();
+            throw new IOException("chunk " + next + " of the trace " + path + " is missing");
+        }
+
+        try (channel) {
+            flush();
+
+            ByteBuffer count = ByteBuffer.allocate(Long.BYTES).order(PointTrace.BYTE_ORDER);
+            count.putLong(0, size);
+            channel.write(count, PointTrace.COUNT_OFFSET);
+            channel.force(false);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * It closes the trace without keeping it, for example if the render was cancelled.
+     */
+    public synchronized void discard() throws IOException {
+        channel.close();
+        Files.deleteIfExists(temporary);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+	Author: Elias (Gotzi) Gottsbacher
+	Copyright (c) 2023 Elias Gottsbacher
+*/
+
+package net.gotzi.drawmachine.utils;
+
+public class FastTrig {
+
+    private static final int TABLE_BITS = 12;
+    private static final int TABLE_SIZE = 1 << TABLE_BITS;
+    private static final int TABLE_MASK = TABLE_SIZE - 1;
+
+    private static final double SIN_SCALE = TABLE_SIZE / (2 * Math.PI);
+
+    /**
+     * One period of the sine, the last entry repeats the first one, so the interpolation never wraps.
+     */
+    private static final double[] SIN_TABLE = new double[TABLE_SIZE + 1];
+
+    /**
+     * The arc tangent between 0 and 1, larger values are mirrored.
+     */
+    private static final double[] ATAN_TABLE = new double[TABLE_SIZE + 1];
+
+    static {
+        for (int i = 0; i <= TABLE_SIZE; i++) {
+            SIN_TABLE[i] = Math.sin(i / SIN_SCALE);
+            ATAN_TABLE[i] = Math.atan((double) i / TABLE_SIZE);
+        }
+    }
+
+    /**
+     * The largest error of {@link #sin(double)} and {@link #cos(double)}, the second derivative of the sine is at
+     * most 1, so the linear interpolation is off by at most a square step through 8.
+     */
+    public static final double SIN_ERROR = Math.pow(2 * Math.PI / TABLE_SIZE, 2) / 8;
+
+    /**
+     * The largest error of {@link #atan(double)}, the second derivative of the arc tangent is at most 0.65 between 0
+     * and 1.
+     */
+    public static final double ATAN_ERROR = 0.65 * Math.pow(1.0 / TABLE_SIZE, 2) / 8;
+
+    /**
+     * It interpolates the sine linearly between the entries of a table.
+     *
+     * @param radiant The angle in radians.
+     * @return The approximated sine, NaN for NaN and infinite angles.
+     */
+    public static double sin(double radiant) {
+        return lookup(radiant * SIN_SCALE);
+    }
+
+    public static double cos(double radiant) {
+        return lookup(radiant * SIN_SCALE + TABLE_SIZE / 4.0);
+    }
+
+    private static double lookup(double position) {
+        if (Double.isNaN(position) || Double.isInfinite(position))
+            return Double.NaN;
+
+        double floor = Math.floor(position);
+        int index = (int) ((long) floor & TABLE_MASK);
+        double fraction = position - floor;
+
+        return SIN_TABLE[index] + (SIN_TABLE[index + 1] - SIN_TABLE[index]) * fraction;
+    }
+
+    /**
+     * It interpolates the arc tangent linearly between the entries of a table, values above 1 use
+     * atan(x) = pi/2 - atan(1/x).
+     *
+     * @param value The tangent.
+     * @return The approximated angle in radians.
+     */
+    public static double atan(double value) {
+        if (Double.isNaN(value))
+            return value;
+
+        double abs = Math.abs(value);
+        double result = abs <= 1 ? atanTable(abs) : Math.PI / 2 - atanTable(1 / abs);
+
+        return value < 0 ? -result : result;
+    }
+
+    private static double atanTable(double value) {
+        double position = value * TABLE_SIZE;
+        int index = (int) position;
+        double fraction = position - index;
+
+        if (index == TABLE_SIZE)
+            return ATAN_TABLE[TABLE_SIZE];
+
+        return ATAN_TABLE[index] + (ATAN_TABLE[index + 1] - ATAN_TABLE[index]) * fraction;
+    }
+
+    /**
+     * It calculates the arc sine with asin(x) = atan(x / sqrt(1 - x^2)).
+     *
+     * @param value The sine, between -1 and 1.
+     * @return The approximated angle in radians, NaN if the value is outside of -1 and 1.
+     */
+    public static double asin(double value) {
+        if (!(Math.abs(value) <= 1))
+            return Double.NaN;
+
+        return atan(value / Math.sqrt(1 - value * value));
+    }
+}
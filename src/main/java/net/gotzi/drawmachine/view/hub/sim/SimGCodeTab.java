@@ -8,24 +8,33 @@ package net.gotzi.drawmachine.view.hub.sim;
 import net.gotzi.drawmachine.api.sim.SimProgramInfo;
 import net.gotzi.drawmachine.control.UnderLayPanel;
 import net.gotzi.drawmachine.sim.gcode.GCode;
+import net.gotzi.drawmachine.sim.gcode.GCodeModel;
 import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
 import org.fife.ui.rsyntaxtextarea.SyntaxConstants;
 import org.fife.ui.rtextarea.RTextScrollPane;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
 import java.awt.*;
 
 public class SimGCodeTab extends JPanel {
 
     private final RSyntaxTextArea gCodeEditor;
+    private final GCodeModel gCodeModel;
 
     public SimGCodeTab(SimProgramInfo programInfo) {
         this.gCodeEditor = new RSyntaxTextArea(20, 60);
+        this.gCodeEditor.setText(String.join(System.lineSeparator(), programInfo.gcode().getSource()));
+        this.gCodeModel = new GCodeModel(getLines(0, gCodeEditor.getLineCount()));
 
-        setup(programInfo);
+        setup();
     }
 
-    private void setup(SimProgramInfo programInfo) {
+    private void setup() {
         gCodeEditor.setSyntaxEditingStyle(SyntaxConstants.SYNTAX_STYLE_ACTIONSCRIPT);
         gCodeEditor.setBackground(Color.WHITE);
         gCodeEditor.setSelectedTextColor(Color.GRAY);
@@ -33,8 +42,7 @@ public class SimGCodeTab extends JPanel {
         gCodeEditor.setCurrentLineHighlightColor(Color.LIGHT_GRAY);
         gCodeEditor.setCodeFoldingEnabled(true);
 
-        String source = String.join(System.lineSeparator(), programInfo.gcode().getSource());
-        gCodeEditor.setText(source);
+        gCodeEditor.getDocument().addDocumentListener(new ModelUpdater());
 
         RTextScrollPane scrollPane = new RTextScrollPane(gCodeEditor);
         UnderLayPanel underLayPanel = new UnderLayPanel(scrollPane);
@@ -47,15 +55,70 @@ public class SimGCodeTab extends JPanel {
         this.add(underLayPanel, BorderLayout.CENTER);
     }
 
-    public GCode loadGCode(boolean filterCommands) {
-        String text = gCodeEditor.getText();
-
-        if (filterCommands)
-            text = text.replaceAll("/\\*(?:[^*]|\\*+[^*/])*\\*+/|//.*","");
-
-        String[] source = text.split("\\r?\\n");
+    /**
+     * The program is kept compiled while it is edited, so this only links the lines which are already parsed.
+     *
+     * @return The program of the editor.
+     */
+    public GCode loadGCode() {
+        return gCodeModel.toGCode();
+    }
 
-        return new GCode(source);
+    /**
+     * @return The text of the lines, without their line break.
+     */
+    private String[] getLines(int first, int count) {
+        Document document = gCodeEditor.getDocument();
+        Element root = document.getDefaultRootElement();
+        String[] lines = new String[count];
+
+        try {
+            for (int i = 0; i < count; i++) {
+                Element line = root.getElement(first + i);
+                int end = Math.min(line.getEndOffset(), document.getLength());
+                String text = document.getText(line.getStartOffset(), end - line.getStartOffset());
+
+                lines[i] = text.endsWith("\n") ? text.substring(0, text.length() - 1) : text;
+            }
+        } catch (BadLocationException e) {
+            throw new IllegalStateException(e);
+        }
+
+        return lines;
     }
 
+    /**
+     * It passes every edit of the document to the model. If lines were split or joined, the element change of the
+     * root tells which lines were replaced, otherwise only the edited line has changed.
+     */
+    private class ModelUpdater implements DocumentListener {
+
+        @Override
+        public void insertUpdate(DocumentEvent e) {
+            update(e);
+        }
+
+        @Override
+        public void removeUpdate(DocumentEvent e) {
+            update(e);
+        }
+
+        @Override
+        public void changedUpdate(DocumentEvent e) {
+        }
+
+        private void update(DocumentEvent e) {
+            Element root = e.getDocument().getDefaultRootElement();
+            DocumentEvent.ElementChange change = e.getChange(root);
+
+            if (change != null) {
+                int first = change.getIndex();
+                int added = change.getChildrenAdded().length;
+                gCodeModel.replaceLines(first, change.getChildrenRemoved().length, getLines(first, added));
+            } else {
+                int line = root.getElementIndex(e.getOffset());
+                gCodeModel.replaceLines(line, 1, getLines(line, 1));
+            }
+        }
+    }
 }
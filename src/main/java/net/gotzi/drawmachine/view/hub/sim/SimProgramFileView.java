@@ -29,6 +29,7 @@ public class SimProgramFileView extends FileView<SimProgramInfo> {
 
         this.simDataCollector.setSimGCodeTab(this.simGCodeTab);
         this.simDataCollector.setSimulationTab(this.simulationTab);
+        this.simulationTab.getSimView().showCachedRender();
 
         this.tabbedPane = new VerticalTabbedPane();
 
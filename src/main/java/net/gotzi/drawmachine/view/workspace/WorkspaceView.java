@@ -11,6 +11,7 @@ import net.gotzi.drawmachine.control.DimensionConstants;
 import net.gotzi.drawmachine.control.layout.HorizontalSplitLayout;
 import net.gotzi.drawmachine.handler.design.DesignColor;
 import net.gotzi.drawmachine.handler.design.DesignHandler;
+import net.gotzi.drawmachine.sim.cache.RenderCache;
 import net.gotzi.drawmachine.view.hub.FileHubView;
 
 import javax.swing.*;
@@ -131,6 +132,8 @@ public class WorkspaceView extends JPanel implements Workspace {
      */
     private void loopFiles(File[] files, DefaultMutableTreeNode treeNode) {
         for (File f : files) {
+            if (f.getName().equals(RenderCache.DIRECTORY_NAME)) continue;
+
             if (f.isDirectory()) loadDirectory(f, treeNode);
             else loadFile(f, treeNode);
         }